@@ -0,0 +1,79 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import puzzles.common.solver.Configuration;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations the solver calls on every configuration it
+ * reaches: getSuccessors, hashCode and equals, for each Configuration
+ * implementation on a large instance of its puzzle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigurationBenchmark {
+    @Param({"clock", "water", "hoppers", "jam"})
+    public String puzzle;
+
+    /** configuration being measured */
+    private Configuration config;
+
+    /** separate configuration equal to config */
+    private Configuration copy;
+
+    @Setup
+    public void load() throws IOException {
+        config = make();
+        copy = make();
+    }
+
+    /**
+     * @return a new starting configuration of the selected puzzle
+     */
+    private Configuration make() throws IOException {
+        switch (puzzle) {
+            case "clock":
+                return Puzzles.clock("1000-42-722");
+            case "water":
+                return Puzzles.water("60-39-269-677-919-1553");
+            case "hoppers":
+                return Puzzles.hoppers("hoppers-9.txt");
+            case "jam":
+                return Puzzles.jam("jam-10.txt");
+            default:
+                throw new IllegalArgumentException("Unknown puzzle " + puzzle);
+        }
+    }
+
+    @Benchmark
+    public Collection<Configuration> getSuccessors() {
+        return config.getSuccessors();
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return config.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return config.equals(copy);
+    }
+}
@@ -0,0 +1,581 @@
+package puzzles.bench;
+
+import puzzles.clock.Clock;
+import puzzles.clock.ClockHeuristic;
+import puzzles.common.HoppersPuzzle;
+import puzzles.common.PuzzleLoader;
+import puzzles.common.solver.AStarSolver;
+import puzzles.common.solver.ArrayFrontier;
+import puzzles.common.solver.BidirectionalSolver;
+import puzzles.common.solver.CanonicalVisitedStore;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.HashVisitedStore;
+import puzzles.common.solver.Heuristic;
+import puzzles.common.solver.IDAStarSolver;
+import puzzles.common.solver.ReversibleConfiguration;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersHeuristic;
+import puzzles.hoppers.solver.Hoppers;
+import puzzles.jam.solver.Jam;
+import puzzles.water.Water;
+import puzzles.water.WaterHeuristic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Replays every stored output under output/ against the current code and
+ * checks that the path length and the total and unique config counts are
+ * the same. The name of each case comes from its file name, such as
+ * clock-12-2-15-out.txt or hoppers-7-out.txt, and the main method of the
+ * puzzle is run in this JVM with the arguments in the first line of the
+ * stored output, or in the file name if the first line has none. The wall
+ * time and the bytes allocated by every case are appended to a CSV
+ * history, so a change to the solvers can be shown to be both correct and
+ * faster on the same corpus. Run it from the root of the project:
+ *
+ *     java puzzles.bench.GoldenOutputs [--only regex] [--history file] [--pin]
+ *
+ * Some stored outputs were made by other solvers than the ones in this
+ * tree, which see another number of configs on the way to a path of the
+ * same length. The counts the current code is expected to print for those
+ * cases are kept in bench/golden-counts.csv and checked instead of the
+ * stored ones. Running with --pin rewrites that file with the counts of
+ * every case whose path length matches but whose counts do not, so a
+ * change that is meant to change the counts has to regenerate it.
+ * A case whose counts match but whose stored file is named after other
+ * arguments than it holds is marked BADNAME, and any case whose path
+ * length or counts do not match fails. Cases that can not be run, such as
+ * the PTUI transcripts, are skipped.
+ *
+ * Every clock, water and hoppers case is also solved by each of the other
+ * engines in this tree, which are not run by any main method. These cases
+ * are named after the case and the engine, such as hoppers-7@parallel,
+ * and fail if the engine finds a path of another length than the BFS.
+ * IDA* skips the water cases too large for it to finish in reasonable time.
+ * Their counts are only written to the history, since every engine counts
+ * configurations its own way. It exits with status 1 if any case fails.
+ */
+public final class GoldenOutputs {
+    /** default file the results are appended to */
+    private static final String HISTORY = "bench/golden-history.csv";
+
+    private static final String CSV_HEADER = "run,case,status,expected_steps," +
+            "steps,expected_total,total,expected_unique,unique,millis," +
+            "allocated_bytes";
+
+    /** counts expected instead of the stored ones, by case */
+    private static final String PINNED = "bench/golden-counts.csv";
+
+    private static final String PINNED_HEADER = "case,steps,total,unique";
+
+    /** integer arguments in the first line of a clock or water output */
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+");
+
+    /** main method of every puzzle that can be replayed */
+    private static final Map<String, Consumer<String[]>> MAINS = new LinkedHashMap<>();
+    static {
+        MAINS.put("clock", Clock::main);
+        MAINS.put("water", Water::main);
+        MAINS.put("hoppers", Hoppers::main);
+        MAINS.put("jam", Jam::main);
+    }
+
+    /** most unique configs the BFS of a water case may see for IDA* to be
+     * run on it, since the water heuristic is never more than 2 and IDA*
+     * comes close to an iterative deepening DFS there */
+    private static final long WATER_IDA_LIMIT = 20_000;
+
+    /** engines checked against the BFS of every case, by puzzle */
+    private static final Map<String, Map<String, Engine>> ENGINES = new LinkedHashMap<>();
+    static {
+        Map<String, Engine> clock = new LinkedHashMap<>();
+        clock.put("parallel", (args, expected) ->
+                parallel(Puzzles.clock(String.join("-", args))));
+        clock.put("astar", (args, expected) ->
+                aStar(Puzzles.clock(String.join("-", args)), new ClockHeuristic()));
+        clock.put("idastar", (args, expected) ->
+                idaStar(Puzzles.clock(String.join("-", args)), new ClockHeuristic()));
+        clock.put("bidirectional", (args, expected) ->
+                bidirectional(Puzzles.clock(String.join("-", args))));
+        Map<String, Engine> water = new LinkedHashMap<>();
+        water.put("parallel", (args, expected) ->
+                parallel(Puzzles.water(String.join("-", args))));
+        water.put("astar", (args, expected) ->
+                aStar(Puzzles.water(String.join("-", args)), new WaterHeuristic()));
+        water.put("idastar", (args, expected) -> expected.unique > WATER_IDA_LIMIT ?
+                null : idaStar(Puzzles.water(String.join("-", args)),
+                new WaterHeuristic()));
+        Map<String, Engine> hoppers = new LinkedHashMap<>();
+        hoppers.put("parallel", (args, expected) -> parallel(hoppers(args)));
+        hoppers.put("astar", (args, expected) ->
+                aStar(hoppers(args), new HoppersHeuristic()));
+        hoppers.put("idastar", (args, expected) ->
+                idaStar(hoppers(args), new HoppersHeuristic()));
+        hoppers.put("canonical", (args, expected) -> canonical(hoppers(args)));
+        ENGINES.put("clock", clock);
+        ENGINES.put("water", water);
+        ENGINES.put("hoppers", hoppers);
+    }
+
+    private GoldenOutputs() {}
+
+    /**
+     * Solves a case with another engine than the BFS its main method runs
+     */
+    @FunctionalInterface
+    private interface Engine {
+        /**
+         * @param args arguments the main method of the case is run with
+         * @param expected counts the BFS of the case is expected to print
+         * @return the length of the path the engine found and its counts,
+         * or null if the engine is not run on the case
+         * @throws IOException if the board of the case can not be read
+         */
+        Counts solve(String[] args, Counts expected) throws IOException;
+    }
+
+    /**
+     * Counts read from a puzzle output
+     */
+    private static final class Counts {
+        private long total = -1;
+        private long unique = -1;
+        private int steps = 0;
+
+        /**
+         * @param text output of a puzzle
+         * @return the counts and number of steps in the output
+         */
+        private static Counts parse(String text) {
+            Counts counts = new Counts();
+            for (String line: text.split("\n")) {
+                if (line.startsWith("Total configs: ")) {
+                    counts.total = Long.parseLong(line.substring(15).trim());
+                }
+                else if (line.startsWith("Unique configs: ")) {
+                    counts.unique = Long.parseLong(line.substring(16).trim());
+                }
+                else if (line.startsWith("Step ")) {
+                    counts.steps++;
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * @param row line of the pinned counts file after the case name
+         * @return the counts in the line
+         */
+        private static Counts parseRow(String row) {
+            String[] columns = row.split(",");
+            Counts counts = new Counts();
+            counts.steps = Integer.parseInt(columns[0]);
+            counts.total = Long.parseLong(columns[1]);
+            counts.unique = Long.parseLong(columns[2]);
+            return counts;
+        }
+
+        /**
+         * @param path path an engine found
+         * @param total total configs the engine counted
+         * @param unique unique configs the engine counted, or -1 if it
+         *               does not count them
+         * @return the counts of the engine
+         */
+        private static Counts of(List<Configuration> path, long total,
+                                 long unique) {
+            Counts counts = new Counts();
+            counts.steps = path.size();
+            counts.total = total;
+            counts.unique = unique;
+            return counts;
+        }
+
+        private boolean matches(Counts other) {
+            return total == other.total && unique == other.unique &&
+                    steps == other.steps;
+        }
+
+        @Override
+        public String toString() {
+            return steps + "," + total + "," + unique;
+        }
+    }
+
+    /**
+     * Result of replaying one case
+     */
+    private static final class Replay {
+        private String status;
+        private Counts stored;
+        private Counts actual;
+        private String row;
+    }
+
+    /**
+     * @param args --only followed by a pattern the case names must contain,
+     *             --history followed by the CSV file to append to, and
+     *             --pin to rewrite the pinned counts
+     */
+    public static void main(String[] args) throws IOException {
+        Pattern only = Pattern.compile("");
+        Path history = Path.of(HISTORY);
+        boolean pin = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--only") && i + 1 < args.length) {
+                only = Pattern.compile(args[++i]);
+            }
+            else if (args[i].equals("--history") && i + 1 < args.length) {
+                history = Path.of(args[++i]);
+            }
+            else if (args[i].equals("--pin")) {
+                pin = true;
+            }
+        }
+        Map<String, Counts> pinned = readPinned(Path.of(PINNED));
+
+        List<Path> cases = new ArrayList<>();
+        for (String puzzle: List.of("clock", "water", "hoppers", "jam")) {
+            Path directory = Path.of("output", puzzle);
+            if (Files.isDirectory(directory)) {
+                try (Stream<Path> listed = Files.list(directory)) {
+                    listed.filter(p -> p.getFileName().toString().endsWith("-out.txt"))
+                            .sorted().forEach(cases::add);
+                }
+            }
+        }
+
+        String run = Instant.now().toString();
+        List<String> rows = new ArrayList<>();
+        Map<String, Counts> repinned = new TreeMap<>(pinned);
+        int failed = 0;
+        for (Path file: cases) {
+            String name = file.getFileName().toString();
+            name = name.substring(0, name.length() - "-out.txt".length());
+            String stored = Files.readString(file);
+            if (only.matcher(name).find()) {
+                Replay replay = replay(name, stored,
+                        pin ? null : pinned.get(name));
+                if (pin && replay.actual != null) {
+                    //Only counts can be pinned, a path of another length fails
+                    repinned.remove(name);
+                    if (replay.status.equals("FAIL") &&
+                            replay.stored.steps == replay.actual.steps) {
+                        replay.status = "PINNED";
+                        repinned.put(name, replay.actual);
+                    }
+                }
+                if (replay.status.equals("FAIL")) {
+                    failed++;
+                }
+                System.out.println(name + ": " + replay.row.replace(",", " "));
+                rows.add(run + "," + name + "," + replay.row);
+            }
+
+            for (Map.Entry<String, Engine> engine: ENGINES.getOrDefault(
+                    name.split("-")[0], Map.of()).entrySet()) {
+                String engineName = name + "@" + engine.getKey();
+                if (!only.matcher(engineName).find()) {
+                    continue;
+                }
+                Replay replay = check(engine.getValue(), name, stored,
+                        pinned.get(name));
+                if (replay.status.equals("FAIL")) {
+                    failed++;
+                }
+                System.out.println(engineName + ": " + replay.row.replace(",", " "));
+                rows.add(run + "," + engineName + "," + replay.row);
+            }
+        }
+        if (pin) {
+            List<String> lines = new ArrayList<>();
+            lines.add(PINNED_HEADER);
+            repinned.forEach((name, counts) -> lines.add(name + "," + counts));
+            Files.write(Path.of(PINNED), lines);
+        }
+
+        boolean created = !Files.exists(history);
+        List<String> lines = new ArrayList<>();
+        if (created) {
+            lines.add(CSV_HEADER);
+        }
+        lines.addAll(rows);
+        Files.write(history, lines, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        System.out.println(rows.size() + " cases, " + failed + " failed, " +
+                "history in " + history);
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param file pinned counts file
+     * @return the counts pinned for each case, none if there is no file
+     */
+    private static Map<String, Counts> readPinned(Path file) throws IOException {
+        Map<String, Counts> pinned = new TreeMap<>();
+        if (Files.exists(file)) {
+            for (String line: Files.readAllLines(file)) {
+                if (!line.isBlank() && !line.equals(PINNED_HEADER)) {
+                    int comma = line.indexOf(',');
+                    pinned.put(line.substring(0, comma),
+                            Counts.parseRow(line.substring(comma + 1)));
+                }
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Runs one case and compares it to its stored output, or to its pinned
+     * counts if it has any
+     *
+     * @param name name of the case, such as water-4-3-5
+     * @param stored text of the stored output
+     * @param pinned counts expected instead of the stored ones, or null
+     * @return the result of the case
+     */
+    private static Replay replay(String name, String stored, Counts pinned) {
+        String[] parts = name.split("-");
+        Consumer<String[]> main = MAINS.get(parts[0]);
+        Replay replay = new Replay();
+        replay.stored = Counts.parse(stored);
+        Counts expected = pinned == null ? replay.stored : pinned;
+        String[] args = arguments(parts, firstLine(stored));
+        if (main == null || args == null) {
+            replay.status = "SKIP";
+            replay.row = "SKIP,,,,,,,,";
+            return replay;
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        PrintStream console = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        long allocatedBefore = allocatedBytes(threads);
+        long start = System.nanoTime();
+        try {
+            System.setOut(new PrintStream(captured, false, StandardCharsets.UTF_8));
+            main.accept(args);
+        }
+        finally {
+            System.out.flush();
+            System.setOut(console);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = allocatedBytes(threads) - allocatedBefore;
+
+        String output = captured.toString(StandardCharsets.UTF_8);
+        Counts actual = Counts.parse(output);
+        replay.actual = actual;
+        if (!expected.matches(actual) || expected.steps != replay.stored.steps) {
+            replay.status = "FAIL";
+        }
+        else if (!namedAfter(parts, args)) {
+            replay.status = "BADNAME";
+        }
+        else {
+            replay.status = pinned == null ? "PASS" : "PINNED";
+        }
+        replay.row = replay.status + "," +
+                expected.steps + "," + actual.steps + "," +
+                expected.total + "," + actual.total + "," +
+                expected.unique + "," + actual.unique + "," +
+                millis + "," + (allocatedBefore < 0 ? "" : allocated);
+        return replay;
+    }
+
+    /**
+     * Solves one case with an engine and compares the length of its path
+     * to that of the BFS
+     *
+     * @param engine engine to solve the case with
+     * @param name name of the case, such as water-4-3-5
+     * @param stored text of the stored output
+     * @param pinned counts expected instead of the stored ones, or null
+     * @return the result of the case
+     */
+    private static Replay check(Engine engine, String name, String stored,
+                                Counts pinned) {
+        String[] parts = name.split("-");
+        Replay replay = new Replay();
+        replay.stored = Counts.parse(stored);
+        Counts expected = pinned == null ? replay.stored : pinned;
+        String[] args = arguments(parts, firstLine(stored));
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(threads);
+        long start = System.nanoTime();
+        Counts actual;
+        try {
+            actual = args == null ? null : engine.solve(args, expected);
+        }
+        catch (IOException e) {
+            actual = null;
+        }
+        if (actual == null) {
+            replay.status = "SKIP";
+            replay.row = "SKIP,,,,,,,,";
+            return replay;
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long allocated = allocatedBytes(threads) - allocatedBefore;
+
+        replay.actual = actual;
+        replay.status = expected.steps == actual.steps ? "PASS" : "FAIL";
+        replay.row = replay.status + "," +
+                expected.steps + "," + actual.steps + ",," + actual.total +
+                ",," + (actual.unique < 0 ? "" : actual.unique) + "," +
+                millis + "," + (allocatedBefore < 0 ? "" : allocated);
+        return replay;
+    }
+
+    /**
+     * @return the path of a BFS that expands each layer on the common
+     * fork/join pool, and its counts
+     */
+    private static Counts parallel(Configuration start) {
+        Solver solver = new Solver();
+        List<Configuration> path = solver.doParallelBFS(start);
+        return Counts.of(path, solver.getTotalConfigs(), solver.getUniqueConfigs());
+    }
+
+    /**
+     * @return the path A* finds with the heuristic, and its counts
+     */
+    private static <C extends Configuration> Counts aStar(C start,
+                                                          Heuristic<C> heuristic) {
+        AStarSolver<C> solver = new AStarSolver<>(heuristic);
+        List<Configuration> path = solver.solve(start);
+        return Counts.of(path, solver.getTotalConfigs(), solver.getUniqueConfigs());
+    }
+
+    /**
+     * @return the path IDA* finds with the heuristic, and its total
+     * configs, since it keeps no store of unique ones
+     */
+    private static <C extends Configuration> Counts idaStar(C start,
+                                                            Heuristic<C> heuristic) {
+        IDAStarSolver<C> solver = new IDAStarSolver<>(heuristic);
+        List<Configuration> path = solver.solve(start);
+        return Counts.of(path, solver.getTotalConfigs(), -1);
+    }
+
+    /**
+     * @return the path of a BFS that visits every reflection and rotation
+     * of a board once, and its counts
+     */
+    private static Counts canonical(Configuration start) {
+        Solver solver = new Solver(ArrayFrontier::new,
+                () -> new CanonicalVisitedStore(new HashVisitedStore()));
+        List<Configuration> path = solver.doBFS(start);
+        return Counts.of(path, solver.getTotalConfigs(), solver.getUniqueConfigs());
+    }
+
+    /**
+     * @return the path of a BFS from both the start and the goals, and
+     * its counts
+     */
+    private static Counts bidirectional(ReversibleConfiguration start) {
+        BidirectionalSolver solver = new BidirectionalSolver();
+        List<Configuration> path = solver.solve(start);
+        return Counts.of(path, solver.getTotalConfigs(), solver.getUniqueConfigs());
+    }
+
+    /**
+     * @param args arguments the main method of a hoppers case is run with
+     * @return starting configuration of the board in the file the
+     * arguments name
+     * @throws IOException if the file can not be read
+     */
+    private static HoppersConfig hoppers(String[] args) throws IOException {
+        HoppersPuzzle puzzle = PuzzleLoader.loadHoppers(args[args.length - 1]);
+        return new HoppersConfig(puzzle.getNumRows(), puzzle.getNumCols(),
+                puzzle.getBoard());
+    }
+
+    /**
+     * @param parts name of the case split at the dashes
+     * @param args arguments the case was run with
+     * @return true if the case is named after the file or arguments it was
+     * run with
+     */
+    private static boolean namedAfter(String[] parts, String[] args) {
+        String name = String.join("-", parts);
+        if (parts[0].equals("hoppers") || parts[0].equals("jam")) {
+            return args[0].endsWith("/" + name + ".txt");
+        }
+        return name.equals(parts[0] + "-" + String.join("-", args));
+    }
+
+    /**
+     * @return the first line of the text, without trailing spaces
+     */
+    private static String firstLine(String text) {
+        int end = text.indexOf('\n');
+        return (end < 0 ? text : text.substring(0, end)).stripTrailing();
+    }
+
+    /**
+     * @param parts name of the case split at the dashes
+     * @param header first line of the stored output, which holds the file
+     *               or arguments it was made with
+     * @return arguments of the main method of the puzzle, or null if
+     * neither the header nor the name say how to run it
+     */
+    private static String[] arguments(String[] parts, String header) {
+        if (header.startsWith("File: ")) {
+            return new String[]{header.substring(6).trim()};
+        }
+        if (parts[0].equals("clock") || parts[0].equals("water")) {
+            List<String> numbers = new ArrayList<>();
+            Matcher matcher = NUMBER.matcher(header);
+            while (matcher.find()) {
+                numbers.add(matcher.group());
+            }
+            if (!numbers.isEmpty()) {
+                return numbers.toArray(new String[0]);
+            }
+        }
+        if (parts[0].equals("hoppers") || parts[0].equals("jam")) {
+            if (parts.length != 2 || !parts[1].chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            return new String[]{"data/" + parts[0] + "/" + parts[0] + "-" +
+                    parts[1] + ".txt"};
+        }
+        String[] args = new String[parts.length - 1];
+        System.arraycopy(parts, 1, args, 0, args.length);
+        return args;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, or -1 if the
+     * JVM does not count them
+     */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,50 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Extra benchmark result that reports the most heap used at once during
+ * an iteration, summed over the heap memory pools.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class PeakHeap {
+    /** most bytes of heap in use at once during the iteration */
+    public long peakHeapBytes;
+
+    /**
+     * Forgets the peak of the previous iteration
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Records the peak after each solve
+     */
+    @TearDown(Level.Invocation)
+    public void record() {
+        long used = 0;
+        for (MemoryPoolMXBean pool: ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getPeakUsage().getUsed();
+            }
+        }
+        peakHeapBytes = Math.max(peakHeapBytes, used);
+    }
+}
@@ -0,0 +1,77 @@
+package puzzles.bench;
+
+import puzzles.clock.ClockConfig;
+import puzzles.common.PuzzleLoader;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.jam.model.JamConfig;
+import puzzles.water.WaterConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds starting configurations for the benchmarks from the puzzle files
+ * under data/ and the argument lists encoded in the file names under
+ * output/. Paths are relative to the root of the project, which is where
+ * the benchmarks have to be run from.
+ */
+final class Puzzles {
+    private Puzzles() {}
+
+    /**
+     * @param name name of a file in data/hoppers, such as hoppers-9.txt
+     * @return starting configuration of the board in the file
+     * @throws IOException if the file can not be read
+     */
+    static HoppersConfig hoppers(String name) throws IOException {
+        List<String> lines = Files.readAllLines(Path.of("data/hoppers", name));
+        String[] dimensions = lines.get(0).trim().split("\\s+");
+        int numRows = Integer.parseInt(dimensions[0]);
+        int numCols = Integer.parseInt(dimensions[1]);
+        String[][] board = new String[numRows][];
+        for (int i = 0; i < numRows; i++) {
+            board[i] = lines.get(i + 1).trim().split("\\s+");
+        }
+        return new HoppersConfig(numRows, numCols, board);
+    }
+
+    /**
+     * @param name name of a file in data/jam, such as jam-10.txt
+     * @return starting configuration of the board in the file
+     * @throws IOException if the file can not be read
+     */
+    static JamConfig jam(String name) throws IOException {
+        return new JamConfig(PuzzleLoader.loadJam(Path.of("data/jam", name)));
+    }
+
+    /**
+     * @param arguments arguments of Water joined by dashes, as in the
+     *                  output/water file names, such as 60-39-269-677
+     * @return starting configuration with every bucket empty
+     */
+    static WaterConfig water(String arguments) {
+        String[] values = arguments.split("-");
+        ArrayList<Integer> bucketCapacities = new ArrayList<>();
+        ArrayList<Integer> bucketAmounts = new ArrayList<>();
+        for (int i = 1; i < values.length; i++) {
+            bucketCapacities.add(Integer.parseInt(values[i]));
+            bucketAmounts.add(0);
+        }
+        return new WaterConfig(Integer.parseInt(values[0]),
+                bucketCapacities, bucketAmounts);
+    }
+
+    /**
+     * @param arguments arguments of Clock joined by dashes, as in the
+     *                  output/clock file names, such as 1000-42-722
+     * @return starting configuration of the clock
+     */
+    static ClockConfig clock(String arguments) {
+        String[] values = arguments.split("-");
+        return new ClockConfig(Integer.parseInt(values[0]),
+                Integer.parseInt(values[1]), Integer.parseInt(values[2]));
+    }
+}
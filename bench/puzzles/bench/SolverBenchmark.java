@@ -0,0 +1,162 @@
+package puzzles.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import puzzles.clock.ClockConfig;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.ExternalSolver;
+import puzzles.common.solver.Solver;
+import puzzles.hoppers.model.HoppersConfig;
+import puzzles.jam.model.JamConfig;
+import puzzles.jam.solver.Jam;
+import puzzles.water.Water;
+import puzzles.water.WaterCodec;
+import puzzles.water.WaterConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Solver.doBFS on the shipped puzzle corpus, the way the main method
+ * of each puzzle does, and the water puzzles once more with the layers of
+ * the search kept on disk by ExternalSolver. Run with the gc profiler
+ * (-prof gc) to see the allocation rate, the peak heap is reported as an
+ * extra result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolverBenchmark {
+    /**
+     * Boards in data/hoppers
+     */
+    @State(Scope.Benchmark)
+    public static class HoppersPuzzle {
+        @Param({"hoppers-0.txt", "hoppers-1.txt", "hoppers-2.txt",
+                "hoppers-3.txt", "hoppers-4.txt", "hoppers-5.txt",
+                "hoppers-6.txt", "hoppers-7.txt", "hoppers-8.txt",
+                "hoppers-9.txt"})
+        public String file;
+
+        private HoppersConfig start;
+
+        @Setup
+        public void load() throws IOException {
+            start = Puzzles.hoppers(file);
+        }
+    }
+
+    /**
+     * Boards in data/jam
+     */
+    @State(Scope.Benchmark)
+    public static class JamPuzzle {
+        @Param({"jam-0.txt", "jam-1.txt", "jam-2.txt", "jam-3.txt",
+                "jam-4.txt", "jam-5.txt", "jam-6.txt", "jam-7.txt",
+                "jam-8.txt", "jam-9.txt", "jam-10.txt", "jam-11.txt"})
+        public String file;
+
+        private JamConfig start;
+
+        @Setup
+        public void load() throws IOException {
+            start = Puzzles.jam(file);
+        }
+    }
+
+    /**
+     * Argument lists of the runs stored in output/water
+     */
+    @State(Scope.Benchmark)
+    public static class WaterPuzzle {
+        @Param({"4-3-5", "4-6-15", "17-19-31", "2-5-9-14", "30-23-31-43",
+                "42-70-39-1001", "16-11-17-29-41", "37-5-11-17-29-41",
+                "60-39-269-677-919-1553", "1042-1086-1097-1100-2163"})
+        public String arguments;
+
+        private WaterConfig start;
+
+        @Setup
+        public void load() {
+            start = Puzzles.water(arguments);
+        }
+    }
+
+    /**
+     * Argument lists of the runs stored in output/clock
+     */
+    @State(Scope.Benchmark)
+    public static class ClockPuzzle {
+        @Param({"12-2-1", "12-2-15", "1000-42-722"})
+        public String arguments;
+
+        private ClockConfig start;
+
+        @Setup
+        public void load() {
+            start = Puzzles.clock(arguments);
+        }
+    }
+
+    /**
+     * Directory the external solver writes its layer files to. Every solve
+     * deletes its own files, so only the directory is left to remove.
+     */
+    @State(Scope.Benchmark)
+    public static class LayerDirectory {
+        private Path directory;
+
+        @Setup
+        public void create() throws IOException {
+            directory = Files.createTempDirectory("layers");
+        }
+
+        @TearDown
+        public void delete() throws IOException {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Benchmark
+    public List<Configuration> hoppers(HoppersPuzzle puzzle, PeakHeap peak) {
+        return new Solver().doBFS(puzzle.start);
+    }
+
+    @Benchmark
+    public List<Configuration> jam(JamPuzzle puzzle, PeakHeap peak) {
+        return Jam.makeSolver(puzzle.start).doBFS(puzzle.start);
+    }
+
+    @Benchmark
+    public List<Configuration> water(WaterPuzzle puzzle, PeakHeap peak) {
+        return Water.makeSolver(puzzle.start).doBFS(puzzle.start);
+    }
+
+    @Benchmark
+    public List<Configuration> waterExternal(WaterPuzzle puzzle,
+                                             LayerDirectory layers,
+                                             PeakHeap peak) throws IOException {
+        return new ExternalSolver<>(new WaterCodec(puzzle.start),
+                layers.directory).solve(puzzle.start);
+    }
+
+    @Benchmark
+    public List<Configuration> clock(ClockPuzzle puzzle, PeakHeap peak) {
+        return new Solver().doBFS(puzzle.start);
+    }
+}
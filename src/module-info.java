@@ -1,8 +1,13 @@
 module BFSPuzzleSolver {
     requires transitive javafx.controls;
+    requires jdk.jfr;
+    requires jdk.httpserver;
     exports puzzles.common;
     exports puzzles.hoppers.gui;
     exports puzzles.hoppers.model;
     exports puzzles.jam.gui;
     exports puzzles.jam.model;
+    uses puzzles.common.solver.SolverStrategy;
+    provides puzzles.common.solver.SolverStrategy with
+            puzzles.clock.ClockStrategy, puzzles.water.WaterStrategy;
 }
\ No newline at end of file
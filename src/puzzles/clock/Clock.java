@@ -1,15 +1,24 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solution;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+import puzzles.common.solver.StrategyRegistry;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
- * Simulates the clock puzzle. Uses the Solver to go through all possible
- * configurations of the puzzle and attempts to find a solution. Prints out
+ * Simulates the clock puzzle. Asks the StrategyRegistry for a solution,
+ * which turns the hand the shorter way around the dial without a search,
+ * and only uses the Solver to go through all possible configurations of
+ * the puzzle when the hand does not start on the dial. Prints out
  * starting arguments, number of total configurations, number of unique
- * configurations, and the solution if there is one
+ * configurations, and the solution if there is one. Without a search both
+ * counts are of the configurations on the path, or just the start if
+ * there is none.
  */
 public class Clock {
     /**
@@ -21,35 +30,62 @@ public class Clock {
      *             the 3rd is the ending hour to stop on.
      */
     public static void main(String[] args) {
+        run(args, System.out);
+    }
+
+    /**
+     * Runs the puzzle and writes the solution, if there is one, the same
+     * way main prints it
+     *
+     * @param args Must be 3 integer arguments. The 1st is the number of
+     *             hours on the clock, the 2nd is the starting hour, and
+     *             the 3rd is the ending hour to stop on.
+     * @param out stream to write the output to
+     */
+    public static void run(String[] args, PrintStream out) {
+        run(args, SearchBudget.unlimited(), out);
+    }
+
+    /**
+     * Runs the puzzle like run, but gives up if the search goes over the
+     * budget
+     *
+     * @param args Must be 3 integer arguments. The 1st is the number of
+     *             hours on the clock, the 2nd is the starting hour, and
+     *             the 3rd is the ending hour to stop on.
+     * @param budget limits on the search
+     * @param out stream to write the output to
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public static void run(String[] args, SearchBudget budget, PrintStream out) {
         if (args.length != 3) {
-            System.out.println("Usage: java Clock hours start stop");
+            out.println("Usage: java Clock hours start stop");
         }
         else {
-            //Makes a solver and a starting configuration
-            Solver clockSolver = new Solver();
+            //Makes a starting configuration
             Configuration start = new ClockConfig(
                     Integer.parseInt(args[0]),
                     Integer.parseInt(args[1]),
                     Integer.parseInt(args[2]));
 
             //Get path if there is one
-            List<Configuration> solution = clockSolver.doBFS(start);
+            Solution answer = StrategyRegistry.getDefault().solve(start,
+                    new Solver().withBudget(budget));
+            List<Configuration> solution = answer.getPath();
 
             //Print output
-            System.out.println("Hours: " + args[0] + ", Start: " + args[1] +
+            out.println("Hours: " + args[0] + ", Start: " + args[1] +
                     ", End: " + args[2]);
-            System.out.println("Total configs: " +
-                    clockSolver.getTotalConfigs());
-            System.out.println("Unique configs: " +
-                    clockSolver.getUniqueConfigs());
+            out.println("Total configs: " + answer.getTotalConfigs());
+            out.println("Unique configs: " + answer.getUniqueConfigs());
             if (!solution.isEmpty()) {
                 for (int i = 0; i < solution.size(); i++) {
-                    System.out.println("Step " + i + ": " +
+                    out.println("Step " + i + ": " +
                             solution.get(i).toString());
                 }
             }
             else {
-                System.out.println("No solution");
+                out.println("No solution");
             }
         }
     }
@@ -0,0 +1,33 @@
+package puzzles.clock;
+
+import puzzles.common.solver.StateCodec;
+
+/**
+ * Packs a clock configuration into the position of its hand. The number of
+ * hours and the ending position are the same for every configuration of a
+ * puzzle, so they are kept once in the codec.
+ */
+public class ClockCodec implements StateCodec<ClockConfig> {
+    private final int hours;
+    private final int end;
+
+    /**
+     * Creates a codec for the puzzle the given configuration belongs to
+     *
+     * @param config any configuration of the puzzle
+     */
+    public ClockCodec(ClockConfig config) {
+        this.hours = config.getHours();
+        this.end = config.getEnd();
+    }
+
+    @Override
+    public long encode(ClockConfig config) {
+        return config.getStart();
+    }
+
+    @Override
+    public ClockConfig decode(long state) {
+        return new ClockConfig(hours, (int) state, end);
+    }
+}
@@ -1,14 +1,17 @@
 package puzzles.clock;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.ReversibleConfiguration;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
- * Single configuration of the clock puzzle.
+ * Single configuration of the clock puzzle. Turning the hand either way can
+ * be undone by turning it back, so the puzzle is reversible.
  */
-public class ClockConfig implements Configuration {
+public class ClockConfig implements ReversibleConfiguration {
     private final int hours;
     private final int start;
     private final int end;
@@ -26,6 +29,27 @@ public class ClockConfig implements Configuration {
         this.end = end;
     }
 
+    /**
+     * @return number of hours on the clock
+     */
+    public int getHours() {
+        return hours;
+    }
+
+    /**
+     * @return current position on the clock
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return ending position on the clock that you want to reach
+     */
+    public int getEnd() {
+        return end;
+    }
+
     /**
      * @return an ArrayList of all possible successor configurations for
      * the current configuration
@@ -47,6 +71,28 @@ public class ClockConfig implements Configuration {
         return successors;
     }
 
+    /**
+     * @return the configurations that can reach the current configuration
+     * in one move, which are the same as its successors
+     */
+    @Override
+    public Collection<Configuration> getPredecessors() {
+        return getSuccessors();
+    }
+
+    /**
+     * @return the single goal configuration, with the hand on the
+     * ending position, or no configurations if the ending position is
+     * not on the clock
+     */
+    @Override
+    public Collection<Configuration> getGoals() {
+        if (end < 1 || end > hours) {
+            return List.of();
+        }
+        return List.of(new ClockConfig(hours, end, end));
+    }
+
     /**
      * @return true if the goal configuration for the clock puzzle has
      * been reached
@@ -0,0 +1,32 @@
+package puzzles.clock;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for the clock puzzle. Each move turns the hand one hour in
+ * either direction, so the shorter distance around the dial is exactly
+ * the number of moves left.
+ */
+public class ClockHeuristic implements Heuristic<ClockConfig> {
+    /**
+     * @param config configuration to estimate
+     * @return number of hours between the hand and the ending hour going
+     * the shorter way around the dial, or UNREACHABLE if either hour is
+     * not on the dial
+     */
+    @Override
+    public int estimate(ClockConfig config) {
+        if (!onDial(config.getStart(), config) || !onDial(config.getEnd(), config)) {
+            return UNREACHABLE;
+        }
+        int distance = Math.abs(config.getStart() - config.getEnd());
+        return Math.min(distance, config.getHours() - distance);
+    }
+
+    /**
+     * @return true if the hour is one of the hours of the dial
+     */
+    private static boolean onDial(int hour, ClockConfig config) {
+        return hour >= 1 && hour <= config.getHours();
+    }
+}
@@ -0,0 +1,59 @@
+package puzzles.clock;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solution;
+import puzzles.common.solver.SolverStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Solves the clock puzzle without a search. The hand only ever turns one
+ * hour either way, so the shortest path is the shorter way around the
+ * dial, which is a subtraction modulo the hours. When both ways are as
+ * long the hand is turned back, the way the BFS would find first.
+ */
+public class ClockStrategy implements SolverStrategy {
+    @Override
+    public String getName() {
+        return "clock";
+    }
+
+    @Override
+    public int getPriority() {
+        return 100;
+    }
+
+    /**
+     * @return true for clocks whose hand starts on the dial
+     */
+    @Override
+    public boolean supports(Configuration start) {
+        if (!(start instanceof ClockConfig)) {
+            return false;
+        }
+        ClockConfig clock = (ClockConfig) start;
+        return clock.getHours() >= 1 && clock.getStart() >= 1 &&
+                clock.getStart() <= clock.getHours();
+    }
+
+    @Override
+    public Solution solve(Configuration start) {
+        ClockConfig clock = (ClockConfig) start;
+        int hours = clock.getHours();
+        int end = clock.getEnd();
+        List<Configuration> path = new ArrayList<>();
+        if (end >= 1 && end <= hours) {
+            int forward = Math.floorMod(end - clock.getStart(), hours);
+            int backward = Math.floorMod(clock.getStart() - end, hours);
+            int step = backward <= forward ? -1 : 1;
+            int position = clock.getStart();
+            path.add(clock);
+            while (position != end) {
+                position = Math.floorMod(position - 1 + step, hours) + 1;
+                path.add(new ClockConfig(hours, position, end));
+            }
+        }
+        return Solution.ofPath(path, getName());
+    }
+}
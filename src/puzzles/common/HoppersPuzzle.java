@@ -0,0 +1,47 @@
+package puzzles.common;
+
+/**
+ * Hoppers puzzle read from a file. Each space of the board is one of the
+ * one letter strings "G", "R", "." or "*".
+ */
+public class HoppersPuzzle implements Puzzle {
+    private final int numRows;
+    private final int numCols;
+    private final String[][] board;
+
+    /**
+     * Creates a new hoppers puzzle
+     *
+     * @param numRows number of rows of the board
+     * @param numCols number of columns of the board
+     * @param board 2d array of the board
+     */
+    public HoppersPuzzle(int numRows, int numCols, String[][] board) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.board = board;
+    }
+
+    /**
+     * @return number of rows of the board
+     */
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return number of columns of the board
+     */
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return 2d array of the board, which the caller may change
+     */
+    public String[][] getBoard() {
+        return board;
+    }
+}
@@ -0,0 +1,94 @@
+package puzzles.common;
+
+/**
+ * Jam puzzle read from a file. Every car has a one letter name and covers
+ * the spaces from its start to its end, which are in the same row or the
+ * same column.
+ */
+public class JamPuzzle implements Puzzle {
+    private final int numRows;
+    private final int numCols;
+    private final char[] names;
+
+    /** start row, start column, end row and end column of every car */
+    private final int[] spaces;
+
+    /**
+     * Creates a new jam puzzle
+     *
+     * @param numRows number of rows of the board
+     * @param numCols number of columns of the board
+     * @param names name of every car
+     * @param spaces start row, start column, end row and end column of
+     *               every car, one after the other
+     */
+    public JamPuzzle(int numRows, int numCols, char[] names, int[] spaces) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.names = names;
+        this.spaces = spaces;
+    }
+
+    /**
+     * @return number of rows of the board
+     */
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return number of columns of the board
+     */
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return number of cars on the board
+     */
+    public int getNumCars() {
+        return names.length;
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return name of the car
+     */
+    public char getName(int car) {
+        return names[car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return row of the start of the car
+     */
+    public int getStartRow(int car) {
+        return spaces[4 * car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return column of the start of the car
+     */
+    public int getStartCol(int car) {
+        return spaces[4 * car + 1];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return row of the end of the car
+     */
+    public int getEndRow(int car) {
+        return spaces[4 * car + 2];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return column of the end of the car
+     */
+    public int getEndCol(int car) {
+        return spaces[4 * car + 3];
+    }
+}
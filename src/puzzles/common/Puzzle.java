@@ -0,0 +1,16 @@
+package puzzles.common;
+
+/**
+ * A puzzle read from a file, before any configuration is made from it.
+ */
+public interface Puzzle {
+    /**
+     * @return number of rows of the board
+     */
+    int getNumRows();
+
+    /**
+     * @return number of columns of the board
+     */
+    int getNumCols();
+}
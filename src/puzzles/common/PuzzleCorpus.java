@@ -0,0 +1,304 @@
+package puzzles.common;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Many puzzles precompiled into one binary file. The file starts with an
+ * index of where each puzzle is, sorted by name, and every puzzle is a few
+ * bytes: its name, its kind, its size, then one byte per space of a
+ * hoppers board, or the number of cars of a jam puzzle followed by five
+ * bytes per car, its name and the row and column of both its ends. The
+ * file is memory mapped when it is opened, so opening it reads nothing
+ * and a puzzle is only decoded when it is asked for.
+ */
+public class PuzzleCorpus {
+    /** first int of every corpus file, "PZLC" */
+    private static final int MAGIC = 0x505A4C43;
+    private static final int VERSION = 1;
+
+    private static final byte KIND_HOPPERS = 1;
+    private static final byte KIND_JAM = 2;
+
+    /** bytes before the index, the magic, version and count */
+    private static final int HEADER_SIZE = 12;
+
+    private final ByteBuffer data;
+    private final int count;
+
+    private PuzzleCorpus(ByteBuffer data, int count) {
+        this.data = data;
+        this.count = count;
+    }
+
+    /**
+     * Memory maps a corpus file
+     *
+     * @param file corpus file
+     * @return the opened corpus
+     * @throws IOException if the file can not be read or is not a corpus
+     */
+    public static PuzzleCorpus open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC ||
+                    data.getInt(4) != VERSION) {
+                throw new IOException(file + " is not a puzzle corpus");
+            }
+            return new PuzzleCorpus(data, data.getInt(8));
+        }
+    }
+
+    /**
+     * Reads puzzle files and writes them to a corpus file. Directories are
+     * searched for .txt files.
+     *
+     * @param files puzzle files and directories of puzzle files
+     * @param corpus file to write the corpus to
+     * @return number of puzzles written
+     * @throws IOException if a puzzle can not be read or the corpus can
+     * not be written
+     */
+    public static int compile(List<Path> files, Path corpus) throws IOException {
+        List<Path> puzzles = new ArrayList<>();
+        for (Path file: files) {
+            if (Files.isDirectory(file)) {
+                try (Stream<Path> listed = Files.list(file)) {
+                    listed.filter(p -> p.toString().endsWith(".txt"))
+                            .forEach(puzzles::add);
+                }
+            }
+            else {
+                puzzles.add(file);
+            }
+        }
+
+        //Encode every puzzle, then sort them by name for the index
+        byte[][] names = new byte[puzzles.size()][];
+        byte[][] records = new byte[puzzles.size()][];
+        Integer[] order = new Integer[puzzles.size()];
+        for (int i = 0; i < puzzles.size(); i++) {
+            names[i] = puzzles.get(i).toString().getBytes(StandardCharsets.UTF_8);
+            records[i] = encode(names[i], PuzzleLoader.load(puzzles.get(i)),
+                    puzzles.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(names[a], names[b]));
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(corpus)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(order.length);
+            int offset = HEADER_SIZE + 4 * order.length;
+            for (int i: order) {
+                out.writeInt(offset);
+                offset += records[i].length;
+            }
+            for (int i: order) {
+                out.write(records[i]);
+            }
+        }
+        return order.length;
+    }
+
+    /**
+     * @return the bytes of one puzzle in the corpus
+     */
+    private static byte[] encode(byte[] name, Puzzle puzzle, Path file)
+            throws IOException {
+        if (name.length > Short.MAX_VALUE || puzzle.getNumRows() > 255 ||
+                puzzle.getNumCols() > 255) {
+            throw new IOException(file + " is too big for a corpus");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(name.length);
+        out.write(name);
+        out.writeByte(puzzle instanceof JamPuzzle ? KIND_JAM : KIND_HOPPERS);
+        out.writeByte(puzzle.getNumRows());
+        out.writeByte(puzzle.getNumCols());
+        if (puzzle instanceof HoppersPuzzle) {
+            for (String[] row: ((HoppersPuzzle) puzzle).getBoard()) {
+                for (String space: row) {
+                    out.writeByte(space.charAt(0));
+                }
+            }
+        }
+        else {
+            JamPuzzle jam = (JamPuzzle) puzzle;
+            if (jam.getNumCars() > Short.MAX_VALUE) {
+                throw new IOException(file + " is too big for a corpus");
+            }
+            out.writeShort(jam.getNumCars());
+            for (int car = 0; car < jam.getNumCars(); car++) {
+                out.writeByte(jam.getName(car));
+                out.writeByte(jam.getStartRow(car));
+                out.writeByte(jam.getStartCol(car));
+                out.writeByte(jam.getEndRow(car));
+                out.writeByte(jam.getEndCol(car));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return number of puzzles in the corpus
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param index number of the puzzle, in the order of their names
+     * @return name of the puzzle, the path it was compiled from
+     */
+    public String getName(int index) {
+        int offset = offset(index);
+        byte[] name = new byte[data.getShort(offset)];
+        data.get(offset + 2, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index number of the puzzle, in the order of their names
+     * @return the puzzle, decoded from the corpus
+     */
+    public Puzzle get(int index) {
+        int offset = offset(index);
+        int pos = offset + 2 + data.getShort(offset);
+        byte kind = data.get(pos);
+        int numRows = data.get(pos + 1) & 0xFF;
+        int numCols = data.get(pos + 2) & 0xFF;
+        pos += 3;
+        if (kind == KIND_HOPPERS) {
+            String[][] board = new String[numRows][numCols];
+            try {
+                for (int row = 0; row < numRows; row++) {
+                    for (int col = 0; col < numCols; col++) {
+                        board[row][col] = PuzzleLoader.space(
+                                data.get(pos++) & 0xFF, "corpus");
+                    }
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(getName(index) +
+                        " is damaged in the corpus", e);
+            }
+            return new HoppersPuzzle(numRows, numCols, board);
+        }
+        int numCars = data.getShort(pos);
+        pos += 2;
+        char[] names = new char[numCars];
+        int[] spaces = new int[4 * numCars];
+        for (int car = 0; car < numCars; car++) {
+            names[car] = (char) (data.get(pos++) & 0xFF);
+            for (int i = 0; i < 4; i++) {
+                spaces[4 * car + i] = data.get(pos++) & 0xFF;
+            }
+        }
+        return new JamPuzzle(numRows, numCols, names, spaces);
+    }
+
+    /**
+     * Binary searches the index for a puzzle
+     *
+     * @param name name of the puzzle, the path it was compiled from
+     * @return number of the puzzle, or -1 if there is none with the name
+     */
+    public int indexOf(String name) {
+        byte[] wanted = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = compareName(middle, wanted);
+            if (compared < 0) {
+                low = middle + 1;
+            }
+            else if (compared > 0) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param name name of the puzzle, the path it was compiled from
+     * @return the puzzle, or null if there is none with the name
+     */
+    public Puzzle find(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * @return where the puzzle starts in the file
+     */
+    private int offset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + index +
+                    " of " + count);
+        }
+        return data.getInt(HEADER_SIZE + 4 * index);
+    }
+
+    /**
+     * Compares the name of a puzzle to a name without decoding it
+     */
+    private int compareName(int index, byte[] wanted) {
+        int offset = offset(index);
+        int length = data.getShort(offset);
+        for (int i = 0; i < length && i < wanted.length; i++) {
+            int compared = Integer.compare(data.get(offset + 2 + i) & 0xFF,
+                    wanted[i] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return Integer.compare(length, wanted.length);
+    }
+
+    /**
+     * Compiles puzzle files into a corpus file
+     *
+     * @param args name of the corpus file to write, followed by puzzle
+     *             files and directories of puzzle files
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: java PuzzleCorpus corpus file-or-directory...");
+        }
+        else {
+            List<Path> files = new ArrayList<>();
+            for (int i = 1; i < args.length; i++) {
+                files.add(Path.of(args[i]));
+            }
+            try {
+                long start = System.currentTimeMillis();
+                int written = compile(files, Path.of(args[0]));
+                System.out.println("Compiled " + written + " puzzles into " +
+                        args[0] + " in " + (System.currentTimeMillis() - start) +
+                        " ms");
+            }
+            catch (IOException e) {System.out.println(e.getMessage());}
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package puzzles.common;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads hoppers and jam puzzle files. The whole file is read into one byte
+ * array and walked with a cursor, numbers are parsed straight from the
+ * bytes and every space of a hoppers board is one of four shared strings,
+ * so nothing is allocated per token.
+ *
+ * A hoppers file is the number of rows and columns followed by a row of
+ * spaces per line. A jam file is the number of rows and columns, the
+ * number of cars, then a line per car with its name, start row, start
+ * column, end row and end column.
+ */
+public class PuzzleLoader {
+    private static final String FROG_GREEN = "G";
+    private static final String FROG_RED = "R";
+    private static final String SPACE_EMPTY = ".";
+    private static final String SPACE_INVALID = "*";
+
+    private PuzzleLoader() {
+    }
+
+    /**
+     * Reads a hoppers or a jam puzzle file, telling them apart by the
+     * second line, which is only a number in a jam file
+     *
+     * @param file puzzle file
+     * @return the puzzle in the file
+     * @throws IOException if the file can not be read or is not a puzzle
+     */
+    public static Puzzle load(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (isJam(data)) {
+            return parseJam(data, file.toString());
+        }
+        return parseHoppers(data, file.toString());
+    }
+
+    /**
+     * @param file hoppers puzzle file
+     * @return the puzzle in the file
+     * @throws IOException if the file can not be read or is not a hoppers
+     * puzzle
+     */
+    public static HoppersPuzzle loadHoppers(Path file) throws IOException {
+        return parseHoppers(Files.readAllBytes(file), file.toString());
+    }
+
+    /**
+     * @param file jam puzzle file
+     * @return the puzzle in the file
+     * @throws IOException if the file can not be read or is not a jam
+     * puzzle
+     */
+    public static JamPuzzle loadJam(Path file) throws IOException {
+        return parseJam(Files.readAllBytes(file), file.toString());
+    }
+
+    /**
+     * @param filename name of a hoppers puzzle file
+     * @return the puzzle in the file
+     * @throws IOException if the file can not be read or is not a hoppers
+     * puzzle
+     */
+    public static HoppersPuzzle loadHoppers(String filename) throws IOException {
+        return loadHoppers(Path.of(filename));
+    }
+
+    /**
+     * @param filename name of a jam puzzle file
+     * @return the puzzle in the file
+     * @throws IOException if the file can not be read or is not a jam
+     * puzzle
+     */
+    public static JamPuzzle loadJam(String filename) throws IOException {
+        return loadJam(Path.of(filename));
+    }
+
+    /**
+     * @return true if the second line of the file is a single number
+     */
+    static boolean isJam(byte[] data) {
+        int pos = 0;
+        while (pos < data.length && data[pos] != '\n') {
+            pos++;
+        }
+        boolean digits = false;
+        for (pos++; pos < data.length && data[pos] != '\n'; pos++) {
+            byte b = data[pos];
+            if (b >= '0' && b <= '9') {
+                digits = true;
+            }
+            else if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+            else if (digits) {
+                //Anything after the number other than spaces means a row
+                for (pos++; pos < data.length && data[pos] != '\n'; pos++) {
+                    if (data[pos] != ' ' && data[pos] != '\t' && data[pos] != '\r') {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return digits;
+    }
+
+    /**
+     * Parses the bytes of a hoppers puzzle file
+     *
+     * @param data contents of the file
+     * @param source name of the file, used in error messages
+     * @return the puzzle in the file
+     * @throws IOException if the bytes are not a hoppers puzzle
+     */
+    public static HoppersPuzzle parseHoppers(byte[] data, String source)
+            throws IOException {
+        Cursor in = new Cursor(data, source);
+        int numRows = in.nextInt();
+        int numCols = in.nextInt();
+        String[][] board = new String[numRows][numCols];
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                board[row][col] = space(in.nextSymbol(), source);
+            }
+        }
+        return new HoppersPuzzle(numRows, numCols, board);
+    }
+
+    /**
+     * Parses the bytes of a jam puzzle file
+     *
+     * @param data contents of the file
+     * @param source name of the file, used in error messages
+     * @return the puzzle in the file
+     * @throws IOException if the bytes are not a jam puzzle
+     */
+    public static JamPuzzle parseJam(byte[] data, String source) throws IOException {
+        Cursor in = new Cursor(data, source);
+        int numRows = in.nextInt();
+        int numCols = in.nextInt();
+        int numCars = in.nextInt();
+        char[] names = new char[numCars];
+        int[] spaces = new int[4 * numCars];
+        for (int car = 0; car < numCars; car++) {
+            names[car] = (char) in.nextSymbol();
+            for (int i = 0; i < 4; i++) {
+                spaces[4 * car + i] = in.nextInt();
+            }
+        }
+        return new JamPuzzle(numRows, numCols, names, spaces);
+    }
+
+    /**
+     * @param symbol character of a space of a hoppers board
+     * @param source name of the file, for the error message
+     * @return the shared string of the space
+     * @throws IOException if the character is not a space of a hoppers board
+     */
+    static String space(int symbol, String source) throws IOException {
+        switch (symbol) {
+            case 'G':
+                return FROG_GREEN;
+            case 'R':
+                return FROG_RED;
+            case '.':
+                return SPACE_EMPTY;
+            case '*':
+                return SPACE_INVALID;
+            default:
+                throw new IOException(source + ": unknown space '" +
+                        (char) symbol + "'");
+        }
+    }
+
+    /**
+     * Walks the bytes of a puzzle file one token at a time
+     */
+    private static class Cursor {
+        private final byte[] data;
+        private final String source;
+        private int pos = 0;
+
+        private Cursor(byte[] data, String source) {
+            this.data = data;
+            this.source = source;
+        }
+
+        /**
+         * @return the next token, which must be a number that is not
+         * negative
+         */
+        private int nextInt() throws IOException {
+            skipSpaces();
+            int start = pos;
+            int value = 0;
+            while (pos < data.length && data[pos] >= '0' && data[pos] <= '9') {
+                value = 10 * value + data[pos++] - '0';
+            }
+            if (pos == start || !atTokenEnd()) {
+                throw error("expected a number");
+            }
+            return value;
+        }
+
+        /**
+         * @return the next token, which must be one character long
+         */
+        private int nextSymbol() throws IOException {
+            skipSpaces();
+            if (pos == data.length) {
+                throw error("unexpected end of file");
+            }
+            int symbol = data[pos++] & 0xFF;
+            if (!atTokenEnd()) {
+                throw error("expected a single character");
+            }
+            return symbol;
+        }
+
+        private void skipSpaces() {
+            while (pos < data.length && isSpace(data[pos])) {
+                pos++;
+            }
+        }
+
+        private boolean atTokenEnd() {
+            return pos == data.length || isSpace(data[pos]);
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+
+        /**
+         * @return an exception naming the file and the line the cursor is on
+         */
+        private IOException error(String message) {
+            int line = 1;
+            for (int i = 0; i < pos && i < data.length; i++) {
+                if (data[i] == '\n') {
+                    line++;
+                }
+            }
+            return new IOException(source + ":" + line + ": " + message);
+        }
+    }
+}
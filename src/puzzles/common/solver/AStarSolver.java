@@ -0,0 +1,165 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Solves puzzles using the A* algorithm. Configurations are expanded in
+ * order of the number of moves made to reach them plus the estimate of
+ * the moves left, so far fewer configurations are expanded than with a BFS
+ * when the heuristic is good. The path found is the shortest one as long as
+ * the heuristic never overestimates.
+ *
+ * @param <C> type of configuration being solved
+ */
+public class AStarSolver<C extends Configuration> {
+    private long totalConfigs = 1;
+    private long uniqueConfigs = 1;
+    private long expandedConfigs = 0;
+
+    /** estimates the moves left from a configuration */
+    private final Heuristic<C> heuristic;
+
+    /**
+     * Creates new solver object
+     *
+     * @param heuristic estimates the moves left from a configuration
+     */
+    public AStarSolver(Heuristic<C> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Runs the A* algorithm from the starting config until a goal config
+     * is expanded and generates the path between them. The counts start
+     * over with every call.
+     *
+     * @param start Starting configuration
+     * @return A list that represents the path from the starting config
+     * to the ending config, or an empty list if there is no solution.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Configuration> solve(C start) {
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        expandedConfigs = 0;
+        PriorityQueue<Node> open = new PriorityQueue<>();
+        Map<Configuration, Integer> bestMoves = new HashMap<>();
+        Map<Configuration, Configuration> predecessors = new HashMap<>();
+        long order = 0;
+
+        int startEstimate = heuristic.estimate(start);
+        if (startEstimate == Heuristic.UNREACHABLE) {
+            return new ArrayList<>();
+        }
+        bestMoves.put(start, 0);
+        predecessors.put(start, start);
+        open.add(new Node(start, 0, startEstimate, order++));
+
+        while (!open.isEmpty()) {
+            Node node = open.poll();
+            //Skip entries that were replaced by a shorter way to the config
+            if (node.moves > bestMoves.get(node.config)) {
+                continue;
+            }
+            if (node.config.isGoal()) {
+                return buildPath(predecessors, start, node.config);
+            }
+            expandedConfigs++;
+            int moves = node.moves + 1;
+            for (Configuration successor: node.config.getSuccessors()) {
+                totalConfigs++;
+                Integer known = bestMoves.get(successor);
+                if (known != null && known <= moves) {
+                    continue;
+                }
+                int estimate = heuristic.estimate((C) successor);
+                if (estimate == Heuristic.UNREACHABLE) {
+                    continue;
+                }
+                if (known == null) {
+                    uniqueConfigs++;
+                }
+                predecessors.put(successor, node.config);
+                bestMoves.put(successor, moves);
+                open.add(new Node((C) successor, moves,
+                        moves + estimate, order++));
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Follows the predecessors from the ending config back to the
+     * starting config.
+     *
+     * @param predecessors map from each visited configuration to the
+     *                     configuration it was reached from
+     * @param start Starting configuration
+     * @param end Ending configuration
+     * @return the path from start to end
+     */
+    private static List<Configuration> buildPath(
+            Map<Configuration, Configuration> predecessors,
+            Configuration start, Configuration end) {
+        List<Configuration> path = new ArrayList<>();
+        Configuration current = end;
+        while (!current.equals(start)) {
+            path.add(current);
+            current = predecessors.get(current);
+        }
+        path.add(start);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @return Total number of configurations generated during solve
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return Number of unique configurations generated during solve
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * @return Number of configurations expanded during solve
+     */
+    public long getExpandedConfigs() {
+        return expandedConfigs;
+    }
+
+    /**
+     * Configuration in the open list along with the number of moves made to
+     * reach it and its estimated total number of moves. Nodes with the same
+     * estimate are expanded deepest first, then in the order they were added.
+     */
+    private class Node implements Comparable<Node> {
+        private final C config;
+        private final int moves;
+        private final int total;
+        private final long order;
+
+        private Node(C config, int moves, int total, long order) {
+            this.config = config;
+            this.moves = moves;
+            this.total = total;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            if (total != other.total) {
+                return Integer.compare(total, other.total);
+            }
+            if (moves != other.moves) {
+                return Integer.compare(other.moves, moves);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
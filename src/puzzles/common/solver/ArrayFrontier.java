@@ -0,0 +1,85 @@
+package puzzles.common.solver;
+
+import java.util.NoSuchElementException;
+
+/**
+ * First in first out frontier backed by a growable circular array.
+ * Unlike a LinkedList it does not allocate a node for every configuration
+ * added, which matters when millions of configurations pass through it.
+ */
+public class ArrayFrontier implements Frontier {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Configuration[] elements;
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Creates a new empty frontier
+     */
+    public ArrayFrontier() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty frontier with room for the given number of
+     * configurations before it has to grow
+     *
+     * @param capacity initial capacity of the frontier
+     */
+    public ArrayFrontier(int capacity) {
+        this.elements = new Configuration[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a configuration to the back of the frontier
+     *
+     * @param config configuration to expand later
+     */
+    @Override
+    public void add(Configuration config) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) % elements.length] = config;
+        size++;
+    }
+
+    /**
+     * @return the configuration at the front of the frontier
+     */
+    @Override
+    public Configuration remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("Frontier is empty");
+        }
+        Configuration config = elements[head];
+        elements[head] = null;
+        head = (head + 1) % elements.length;
+        size--;
+        return config;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Doubles the capacity of the array and moves the configurations so the
+     * front of the frontier is at index 0 again
+     */
+    private void grow() {
+        Configuration[] larger = new Configuration[elements.length * 2];
+        for (int i = 0; i < size; i++) {
+            larger[i] = elements[(head + i) % elements.length];
+        }
+        elements = larger;
+        head = 0;
+    }
+}
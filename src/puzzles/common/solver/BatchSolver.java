@@ -0,0 +1,218 @@
+package puzzles.common.solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Solves every puzzle file of a directory in one run, several at a time on
+ * a fixed number of threads, and writes each solution next to the others
+ * as a -out.txt file. The hardest puzzles, by their own estimate, are
+ * started first so the long solves do not end up running alone at the end.
+ */
+public class BatchSolver {
+    /**
+     * One puzzle of a batch, loaded from its file
+     */
+    public interface Job {
+        /**
+         * @return the starting board, one row per line, as written under
+         * the name of the file
+         */
+        String describe();
+
+        /**
+         * Searches for the solution
+         *
+         * @param solver solver to search with, which keeps the counts
+         * @return path from the starting config to the ending config, or
+         * an empty list if there is none
+         */
+        List<Configuration> solve(Solver solver);
+
+        /**
+         * @return how hard the puzzle is expected to be, only compared
+         * against the other puzzles of the batch
+         */
+        double getDifficulty();
+
+        /**
+         * @param step configuration on the path
+         * @return the configuration, one row per line
+         */
+        String format(Configuration step);
+    }
+
+    /**
+     * Loads a job from a puzzle file
+     */
+    @FunctionalInterface
+    public interface JobLoader {
+        /**
+         * @param file puzzle file
+         * @return the job of the puzzle
+         * @throws IOException if the file can not be read or is not a puzzle
+         */
+        Job load(Path file) throws IOException;
+    }
+
+    private final JobLoader loader;
+    private final int threads;
+
+    /**
+     * Creates new batch solver
+     *
+     * @param loader loads the job of each file
+     * @param threads number of puzzles solved at the same time
+     */
+    public BatchSolver(JobLoader loader, int threads) {
+        this.loader = loader;
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Solves every .txt file of a directory and writes the solution of
+     * each to the output directory, named after the puzzle file with -out
+     * added. Files that can not be loaded or solved are reported and
+     * skipped.
+     *
+     * @param directory directory of puzzle files
+     * @param outputDirectory directory to write the solutions to
+     * @return number of solutions written
+     * @throws IOException if the directories can not be read or made
+     */
+    public int solveDirectory(Path directory, Path outputDirectory)
+            throws IOException {
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(directory)) {
+            files = listed.filter(p -> p.toString().endsWith(".txt"))
+                    .sorted().toList();
+        }
+        Files.createDirectories(outputDirectory);
+
+        //Load every puzzle first so they can be ordered by difficulty
+        List<Path> loaded = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        for (Path file: files) {
+            try {
+                jobs.add(loader.load(file));
+                loaded.add(file);
+            }
+            catch (IOException | RuntimeException e) {
+                System.err.println(file + ": " + e.getMessage());
+            }
+        }
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingDouble(
+                (Integer i) -> jobs.get(i).getDifficulty()).reversed());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i: order) {
+                Path file = loaded.get(i);
+                Job job = jobs.get(i);
+                results.add(pool.submit(() -> write(file, job, outputDirectory)));
+            }
+            int written = 0;
+            for (Future<Boolean> result: results) {
+                try {
+                    if (result.get()) {
+                        written++;
+                    }
+                }
+                catch (ExecutionException e) {
+                    System.err.println(e.getCause());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+            return written;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves one puzzle and writes its solution
+     *
+     * @return true if the solution was written, false if it failed
+     */
+    private static boolean write(Path file, Job job, Path outputDirectory) {
+        String name = file.getFileName().toString();
+        Path out = outputDirectory.resolve(
+                name.substring(0, name.length() - ".txt".length()) + "-out.txt");
+        try {
+            Solver solver = new Solver();
+            List<Configuration> path = job.solve(solver);
+            Files.writeString(out, report(file, job, solver, path));
+            return true;
+        }
+        catch (IOException | RuntimeException e) {
+            System.err.println(file + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Formats a solution the way the stored outputs are written: the file,
+     * the starting board, the counts, then every step with a blank line
+     * between them
+     *
+     * @param file puzzle file
+     * @param job the puzzle
+     * @param solver solver that found the path
+     * @param path path from the starting config, empty if there is none
+     * @return the text of the output file
+     */
+    public static String report(Path file, Job job, Solver solver,
+                                List<Configuration> path) {
+        return report(file, job, solver.getTotalConfigs(),
+                solver.getUniqueConfigs(), path);
+    }
+
+    /**
+     * Formats a solution found by any search the way the stored outputs
+     * are written
+     *
+     * @param file puzzle file
+     * @param job the puzzle
+     * @param totalConfigs number of configurations the search generated
+     * @param uniqueConfigs number of those that were not duplicates
+     * @param path path from the starting config, empty if there is none
+     * @return the text of the output file
+     */
+    public static String report(Path file, Job job, long totalConfigs,
+                                long uniqueConfigs, List<Configuration> path) {
+        StringBuilder out = new StringBuilder();
+        out.append("File: ").append(file).append('\n');
+        out.append(job.describe()).append('\n');
+        out.append("Total configs: ").append(totalConfigs).append('\n');
+        out.append("Unique configs: ").append(uniqueConfigs).append('\n');
+        if (path.isEmpty()) {
+            out.append("No solution");
+        }
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) {
+                out.append("\n\n");
+            }
+            out.append("Step ").append(i).append(":\n");
+            out.append(job.format(path.get(i)));
+        }
+        return out.toString();
+    }
+}
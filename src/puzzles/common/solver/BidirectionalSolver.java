@@ -0,0 +1,173 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Solves reversible puzzles using a bidirectional BFS. One search runs
+ * forwards from the starting configuration and one runs backwards from the
+ * goal configurations, and the path is found where they meet. Each search
+ * only has to go about half as deep as a single BFS would, so far fewer
+ * configurations are visited when the puzzle branches a lot.
+ */
+public class BidirectionalSolver {
+    private long totalConfigs = 1;
+    private long uniqueConfigs = 1;
+
+    /**
+     * Runs the bidirectional BFS and generates a path from the starting
+     * config to the closest goal config. The smaller of the two frontiers
+     * is expanded one whole layer at a time, which keeps the path found as
+     * short as the one doBFS finds. The counts start over with every call,
+     * and count the goal configurations the backward search starts from as
+     * well as the starting configuration.
+     *
+     * @param start Starting configuration
+     * @return A list that represents the path from the starting config
+     * to the ending config, or an empty list if there is no solution.
+     */
+    public List<Configuration> solve(ReversibleConfiguration start) {
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        Side forward = new Side();
+        forward.add(start, start, 0);
+        Side backward = new Side();
+        for (Configuration goal: start.getGoals()) {
+            if (backward.add(goal, goal, 0)) {
+                totalConfigs++;
+                uniqueConfigs++;
+            }
+        }
+        if (backward.contains(start)) {
+            return List.of(start);
+        }
+
+        while (!forward.layer.isEmpty() && !backward.layer.isEmpty()) {
+            Configuration meeting;
+            if (forward.layer.size() <= backward.layer.size()) {
+                meeting = expand(forward, backward, true);
+            }
+            else {
+                meeting = expand(backward, forward, false);
+            }
+            if (meeting != null) {
+                return buildPath(forward, backward, meeting);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Expands the whole current layer of one side and checks every new
+     * configuration against the other side
+     *
+     * @param side side being expanded
+     * @param other side searching in the other direction
+     * @param forwards true if the side searches from the start
+     * @return the configuration both sides reach with the fewest moves in
+     * total, or null if the sides did not meet in this layer
+     */
+    private Configuration expand(Side side, Side other, boolean forwards) {
+        List<Configuration> next = new ArrayList<>();
+        Configuration meeting = null;
+        int shortest = Integer.MAX_VALUE;
+
+        for (Configuration current: side.layer) {
+            int moves = side.moves.get(current) + 1;
+            ReversibleConfiguration config = (ReversibleConfiguration) current;
+            Collection<Configuration> neighbors = forwards ?
+                    config.getSuccessors() : config.getPredecessors();
+            for (Configuration neighbor: neighbors) {
+                totalConfigs++;
+                if (!side.add(neighbor, current, moves)) {
+                    continue;
+                }
+                uniqueConfigs++;
+                next.add(neighbor);
+                Integer otherMoves = other.moves.get(neighbor);
+                if (otherMoves != null && moves + otherMoves < shortest) {
+                    shortest = moves + otherMoves;
+                    meeting = neighbor;
+                }
+            }
+        }
+        side.layer = next;
+        return meeting;
+    }
+
+    /**
+     * Joins the path from the start to the meeting configuration with the
+     * path from the meeting configuration to the goal
+     *
+     * @param forward side that searched from the start
+     * @param backward side that searched from the goals
+     * @param meeting configuration both sides reached
+     * @return the path from start to goal
+     */
+    private static List<Configuration> buildPath(Side forward, Side backward,
+                                                 Configuration meeting) {
+        List<Configuration> path = new ArrayList<>();
+        Configuration current = meeting;
+        Configuration parent = forward.parents.get(current);
+        while (!current.equals(parent)) {
+            path.add(current);
+            current = parent;
+            parent = forward.parents.get(current);
+        }
+        path.add(current);
+        Collections.reverse(path);
+
+        current = meeting;
+        Configuration next = backward.parents.get(current);
+        while (!current.equals(next)) {
+            path.add(next);
+            current = next;
+            next = backward.parents.get(current);
+        }
+        return path;
+    }
+
+    /**
+     * @return Total number of configurations generated during solve
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return Number of unique configurations generated during solve
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * State of the search in one direction. Parents point back towards the
+     * configuration the side started from, which is its own parent.
+     */
+    private static class Side {
+        private final Map<Configuration, Configuration> parents = new HashMap<>();
+        private final Map<Configuration, Integer> moves = new HashMap<>();
+        private List<Configuration> layer = new ArrayList<>();
+
+        /**
+         * Records a configuration if this side has not reached it yet
+         *
+         * @return true if the configuration was added
+         */
+        private boolean add(Configuration config, Configuration parent,
+                            int depth) {
+            if (parents.putIfAbsent(config, parent) != null) {
+                return false;
+            }
+            moves.put(config, depth);
+            if (depth == 0) {
+                layer.add(config);
+            }
+            return true;
+        }
+
+        private boolean contains(Configuration config) {
+            return parents.containsKey(config);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package puzzles.common.solver;
+
+/**
+ * Visited store that treats every reflection and rotation of a
+ * configuration as the same configuration. Each configuration is looked up
+ * by its canonical form in another store, while the parent stored is the
+ * real configuration it was reached from. Only the first configuration of
+ * each canonical form is ever added to the frontier, so following the
+ * parents from the goal still gives a path of real, unmirrored moves.
+ * Configurations that are not symmetric are stored as they are.
+ */
+public class CanonicalVisitedStore implements VisitedStore {
+    private final VisitedStore store;
+
+    /**
+     * Creates a new empty store
+     *
+     * @param store empty store that holds the canonical configurations
+     */
+    public CanonicalVisitedStore(VisitedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean add(Configuration config, Configuration parent) {
+        return store.add(canonical(config), parent);
+    }
+
+    @Override
+    public boolean contains(Configuration config) {
+        return store.contains(canonical(config));
+    }
+
+    @Override
+    public Configuration getParent(Configuration config) {
+        return store.getParent(canonical(config));
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * @return canonical form of the configuration, or the configuration
+     * itself if it is not symmetric
+     */
+    private static Configuration canonical(Configuration config) {
+        if (config instanceof SymmetricConfiguration) {
+            return ((SymmetricConfiguration) config).canonical();
+        }
+        return config;
+    }
+}
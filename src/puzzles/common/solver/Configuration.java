@@ -12,6 +12,20 @@ public interface Configuration {
      */
     Collection<Configuration> getSuccessors();
 
+    /**
+     * Hands every successor to the sink as it is generated, in the same
+     * order as getSuccessors. Configurations that can generate their
+     * successors without collecting them should override this and build
+     * getSuccessors on top of it.
+     *
+     * @param sink receives each successor
+     */
+    default void forEachSuccessor(SuccessorSink sink) {
+        for (Configuration successor: getSuccessors()) {
+            sink.accept(successor);
+        }
+    }
+
     /**
      * @return true if the current configuration is the goal configuration.
      * Returns false otherwise.
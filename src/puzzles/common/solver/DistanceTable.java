@@ -0,0 +1,200 @@
+package puzzles.common.solver;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Table of the distance to the nearest goal, and the next move towards it,
+ * for every configuration reachable from a starting configuration. It is
+ * built once by enumerating the whole reachable space and then running a
+ * BFS backwards from every goal over the reversed moves. After that, the
+ * best move from any reachable configuration is a single lookup.
+ */
+public class DistanceTable {
+    /** distance of a configuration that can not reach a goal */
+    public static final int UNREACHABLE = -1;
+
+    /** number of every configuration reached */
+    private final Map<Configuration, Integer> ids;
+
+    /** configuration with each number */
+    private final Configuration[] configs;
+
+    /** moves from each configuration to the nearest goal */
+    private final int[] distances;
+
+    /** number of the successor one move closer to a goal, or -1 */
+    private final int[] next;
+
+    private DistanceTable(Map<Configuration, Integer> ids,
+                          Configuration[] configs,
+                          int[] distances, int[] next) {
+        this.ids = ids;
+        this.configs = configs;
+        this.distances = distances;
+        this.next = next;
+    }
+
+    /**
+     * Builds the table for every configuration reachable from the start
+     *
+     * @param start Starting configuration
+     * @return the finished table
+     */
+    public static DistanceTable build(Configuration start) {
+        return build(start, SearchBudget.unlimited());
+    }
+
+    /**
+     * Builds the table for every configuration reachable from the start,
+     * giving up if that takes more than the budget
+     *
+     * @param start Starting configuration
+     * @param budget limits on the enumeration
+     * @return the finished table
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public static DistanceTable build(Configuration start, SearchBudget budget) {
+        return build(start, budget, () -> false);
+    }
+
+    /**
+     * Builds the table for every configuration reachable from the start,
+     * giving up if that takes more than the budget or once it is cancelled.
+     * Both are checked every few expansions.
+     *
+     * @param start Starting configuration
+     * @param budget limits on the enumeration
+     * @param cancelled returns true once the build should stop
+     * @return the finished table
+     * @throws SearchAbortedException if the budget ran out or the build was
+     * cancelled first
+     */
+    public static DistanceTable build(Configuration start, SearchBudget budget,
+                                      BooleanSupplier cancelled) {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.start();
+
+        //Number every reachable configuration and record each move
+        //as an edge from its successor back to the configuration
+        Map<Configuration, Integer> ids = new HashMap<>();
+        List<Configuration> configs = new ArrayList<>();
+        int[] edgeFrom = new int[16];
+        int[] edgeTo = new int[16];
+        int edges = 0;
+        ids.put(start, 0);
+        configs.add(start);
+        List<Configuration> successors = new ArrayList<>();
+        for (int id = 0; id < configs.size(); id++) {
+            Configuration current = configs.get(id);
+            if (current.isGoal()) {
+                continue;
+            }
+            int unique = 0;
+            successors.clear();
+            current.forEachSuccessor(successors::add);
+            for (Configuration successor: successors) {
+                Integer successorId = ids.putIfAbsent(successor, configs.size());
+                if (successorId == null) {
+                    successorId = configs.size();
+                    configs.add(successor);
+                    unique++;
+                }
+                if (edges == edgeFrom.length) {
+                    edgeFrom = Arrays.copyOf(edgeFrom, edges * 2);
+                    edgeTo = Arrays.copyOf(edgeTo, edges * 2);
+                }
+                edgeFrom[edges] = successorId;
+                edgeTo[edges] = id;
+                edges++;
+            }
+            metrics.expanded(successors.size(), unique, 0, 0);
+            if (id % 256 == 0) {
+                if (cancelled.getAsBoolean()) {
+                    throw new SearchAbortedException("Build cancelled");
+                }
+                budget.check(metrics);
+            }
+        }
+
+        //Group the reversed edges by the configuration they leave from
+        int size = configs.size();
+        int[] firstEdge = new int[size + 1];
+        for (int i = 0; i < edges; i++) {
+            firstEdge[edgeFrom[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            firstEdge[i + 1] += firstEdge[i];
+        }
+        int[] predecessors = new int[edges];
+        int[] filled = Arrays.copyOf(firstEdge, size);
+        for (int i = 0; i < edges; i++) {
+            predecessors[filled[edgeFrom[i]]++] = edgeTo[i];
+        }
+
+        //BFS backwards from every goal
+        int[] distances = new int[size];
+        int[] next = new int[size];
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(next, -1);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int id = 0; id < size; id++) {
+            if (configs.get(id).isGoal()) {
+                distances[id] = 0;
+                queue[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int id = queue[head++];
+            for (int i = firstEdge[id]; i < firstEdge[id + 1]; i++) {
+                int predecessor = predecessors[i];
+                if (distances[predecessor] == UNREACHABLE) {
+                    distances[predecessor] = distances[id] + 1;
+                    next[predecessor] = id;
+                    queue[tail++] = predecessor;
+                }
+            }
+        }
+
+        return new DistanceTable(ids, configs.toArray(new Configuration[0]),
+                distances, next);
+    }
+
+    /**
+     * @param config configuration to check
+     * @return true if the configuration was reached while building the table
+     */
+    public boolean contains(Configuration config) {
+        return ids.containsKey(config);
+    }
+
+    /**
+     * @param config configuration to look up
+     * @return number of moves from the configuration to the nearest goal,
+     * or UNREACHABLE if it can not reach a goal or is not in the table
+     */
+    public int distance(Configuration config) {
+        Integer id = ids.get(config);
+        return id == null ? UNREACHABLE : distances[id];
+    }
+
+    /**
+     * @param config configuration to look up
+     * @return the successor of the configuration that is one move closer to
+     * the nearest goal, or null if it is a goal, can not reach one or is not
+     * in the table
+     */
+    public Configuration next(Configuration config) {
+        Integer id = ids.get(config);
+        return id == null || next[id] < 0 ? null : configs[next[id]];
+    }
+
+    /**
+     * @return number of configurations in the table
+     */
+    public int size() {
+        return configs.length;
+    }
+}
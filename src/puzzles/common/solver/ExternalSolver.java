@@ -0,0 +1,408 @@
+package puzzles.common.solver;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Solves puzzles using a BFS that keeps its layers on disk instead of in
+ * memory. Configurations are packed into longs by a StateCodec and every
+ * layer is written to a file sorted by packed value. The successors of a
+ * layer are collected into sorted runs of bounded size, and duplicates are
+ * removed by merging the runs against the files of the earlier layers
+ * (delayed duplicate detection). Only one run is held in memory at a time,
+ * so puzzles whose visited set does not fit in the heap can still be solved,
+ * trading memory for disk I/O. When every move of the puzzle can be undone,
+ * the successors of a layer can only be in that layer, the one before it
+ * or the next one, so only those two are merged against and each layer is
+ * read a bounded number of times. Every solve writes its files to a new
+ * directory of its own, so solves can share the directory they are given.
+ *
+ * @param <C> type of configuration being solved
+ */
+public class ExternalSolver<C extends Configuration> {
+    /** default number of packed configurations held in memory at once */
+    private static final int DEFAULT_RUN_SIZE = 1 << 22;
+
+    /** number of packed configurations mapped into memory at once */
+    private static final int WINDOW_SIZE = 1 << 23;
+
+    private long totalConfigs = 1;
+    private long uniqueConfigs = 1;
+
+    private final StateCodec<C> codec;
+    private final Path directory;
+    private final int runSize;
+
+    /** true if every move of the puzzle can be undone by another move */
+    private final boolean undoable;
+
+    /**
+     * Creates new solver object that holds a default number of
+     * configurations in memory
+     *
+     * @param codec packs and unpacks the configurations
+     * @param directory directory the layer files are written to
+     */
+    public ExternalSolver(StateCodec<C> codec, Path directory) {
+        this(codec, directory, DEFAULT_RUN_SIZE, false);
+    }
+
+    /**
+     * Creates new solver object that holds a default number of
+     * configurations in memory
+     *
+     * @param codec packs and unpacks the configurations
+     * @param directory directory the layer files are written to
+     * @param undoable true if every move of the puzzle can be undone by
+     *                 another move, so only the last two layers are merged
+     *                 against
+     */
+    public ExternalSolver(StateCodec<C> codec, Path directory,
+                          boolean undoable) {
+        this(codec, directory, DEFAULT_RUN_SIZE, undoable);
+    }
+
+    /**
+     * Creates new solver object
+     *
+     * @param codec packs and unpacks the configurations
+     * @param directory directory the layer files are written to
+     * @param runSize number of successors collected in memory before they
+     *                are sorted and written to disk
+     * @param undoable true if every move of the puzzle can be undone by
+     *                 another move, so only the last two layers are merged
+     *                 against
+     */
+    public ExternalSolver(StateCodec<C> codec, Path directory, int runSize,
+                          boolean undoable) {
+        this.codec = codec;
+        this.directory = directory;
+        this.runSize = Math.max(runSize, 1);
+        this.undoable = undoable;
+    }
+
+    /**
+     * Runs the BFS one layer at a time and generates a path from the
+     * starting config to the ending config. The files are written to a new
+     * directory inside the one given to the constructor, which is deleted
+     * with them before returning. The counts start over with every call.
+     *
+     * @param start Starting configuration
+     * @return A list that represents the path from the starting config
+     * to the ending config, or an empty list if there is no solution.
+     * @throws IOException if a layer file can not be written or read
+     */
+    public List<Configuration> solve(C start) throws IOException {
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        Files.createDirectories(directory);
+        Path files = Files.createTempDirectory(directory, "bfs-");
+        List<Path> layers = new ArrayList<>();
+        try {
+            Path first = files.resolve("layer-0.bin");
+            writeRun(new long[] {codec.encode(start)}, 1, first);
+            layers.add(first);
+
+            for (int depth = 0; ; depth++) {
+                List<Path> runs = new ArrayList<>();
+                try {
+                    long goal = expand(layers.get(depth), files, depth, runs);
+                    if (goal >= 0) {
+                        return buildPath(layers, depth, goal);
+                    }
+                    if (runs.isEmpty()) {
+                        return new ArrayList<>();
+                    }
+                    Path next = files.resolve("layer-" + (depth + 1) + ".bin");
+                    layers.add(next);
+                    //Undone moves only lead back to the last two layers
+                    int from = undoable ? Math.max(depth - 1, 0) : 0;
+                    long added = merge(runs, layers.subList(from, depth + 1),
+                            next);
+                    if (added == 0) {
+                        return new ArrayList<>();
+                    }
+                    uniqueConfigs += added;
+                }
+                finally {
+                    for (Path run: runs) {
+                        Files.deleteIfExists(run);
+                    }
+                }
+            }
+        }
+        finally {
+            for (Path layer: layers) {
+                Files.deleteIfExists(layer);
+            }
+            Files.deleteIfExists(files);
+        }
+    }
+
+    /**
+     * Checks every configuration of a layer for the goal and writes the
+     * successors of the layer to sorted runs
+     *
+     * @param layer file of the layer to expand
+     * @param files directory of the files of this solve
+     * @param depth depth of the layer
+     * @param runs list the run files written are added to
+     * @return the packed goal configuration, or -1 if the layer has none
+     * @throws IOException if a file can not be written or read
+     */
+    private long expand(Path layer, Path files, int depth, List<Path> runs)
+            throws IOException {
+        long[] buffer = new long[runSize];
+        int count = 0;
+        try (LayerReader reader = new LayerReader(layer)) {
+            while (reader.hasNext()) {
+                long state = reader.next();
+                C current = codec.decode(state);
+                if (current.isGoal()) {
+                    return state;
+                }
+                for (Configuration successor: current.getSuccessors()) {
+                    totalConfigs++;
+                    buffer[count++] = encode(successor);
+                    if (count == buffer.length) {
+                        runs.add(spill(buffer, count, files.resolve(
+                                "run-" + depth + "-" + runs.size() + ".bin")));
+                        count = 0;
+                    }
+                }
+            }
+        }
+        if (count > 0) {
+            runs.add(spill(buffer, count, files.resolve(
+                    "run-" + depth + "-" + runs.size() + ".bin")));
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the buffered successors and writes them to a new run file
+     */
+    private static Path spill(long[] buffer, int count, Path run)
+            throws IOException {
+        Arrays.sort(buffer, 0, count);
+        writeRun(buffer, count, run);
+        return run;
+    }
+
+    /**
+     * Merges the sorted runs into a new layer file, leaving out duplicates
+     * and every configuration that is already in an earlier layer
+     *
+     * @param runs sorted run files of successors
+     * @param earlier files of the layers found so far that the new layer
+     *                could share configurations with
+     * @param next file the new layer is written to
+     * @return number of configurations in the new layer
+     * @throws IOException if a file can not be written or read
+     */
+    private long merge(List<Path> runs, List<Path> earlier, Path next)
+            throws IOException {
+        List<LayerReader> readers = new ArrayList<>();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(next)))) {
+            PriorityQueue<LayerReader> pending = new PriorityQueue<>(
+                    Comparator.comparingLong(LayerReader::peek));
+            for (Path run: runs) {
+                LayerReader reader = new LayerReader(run);
+                readers.add(reader);
+                if (reader.hasNext()) {
+                    pending.add(reader);
+                }
+            }
+            List<LayerReader> visited = new ArrayList<>();
+            for (Path layer: earlier) {
+                LayerReader reader = new LayerReader(layer);
+                readers.add(reader);
+                visited.add(reader);
+            }
+
+            long added = 0;
+            long last = -1;
+            while (!pending.isEmpty()) {
+                LayerReader reader = pending.poll();
+                long state = reader.next();
+                if (reader.hasNext()) {
+                    pending.add(reader);
+                }
+                if (state == last) {
+                    continue;
+                }
+                last = state;
+                if (!seen(visited, state)) {
+                    out.writeLong(state);
+                    added++;
+                }
+            }
+            return added;
+        }
+        finally {
+            for (LayerReader reader: readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Moves every earlier layer forward to the given configuration. The
+     * configurations are checked in increasing order, so each layer only
+     * has to be read once per merge.
+     *
+     * @return true if an earlier layer has the configuration
+     */
+    private static boolean seen(List<LayerReader> visited, long state) {
+        boolean found = false;
+        for (LayerReader reader: visited) {
+            while (reader.hasNext() && reader.peek() < state) {
+                reader.next();
+            }
+            found |= reader.hasNext() && reader.peek() == state;
+        }
+        return found;
+    }
+
+    /**
+     * Rebuilds the path by finding, in each earlier layer, a configuration
+     * that has the next configuration of the path as a successor
+     *
+     * @param layers files of every layer found
+     * @param depth depth of the layer the goal is in
+     * @param goal packed goal configuration
+     * @return the path from the start to the goal
+     * @throws IOException if a layer file can not be read
+     */
+    private List<Configuration> buildPath(List<Path> layers, int depth,
+                                          long goal) throws IOException {
+        List<Configuration> path = new ArrayList<>();
+        long current = goal;
+        path.add(codec.decode(current));
+        for (int d = depth - 1; d >= 0; d--) {
+            current = findParent(layers.get(d), current);
+            path.add(codec.decode(current));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * @return a configuration of the layer with the given configuration as
+     * a successor
+     */
+    private long findParent(Path layer, long child) throws IOException {
+        try (LayerReader reader = new LayerReader(layer)) {
+            while (reader.hasNext()) {
+                long state = reader.next();
+                for (Configuration successor:
+                        codec.decode(state).getSuccessors()) {
+                    if (encode(successor) == child) {
+                        return state;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Layer " + layer +
+                " has no parent of configuration " + child);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long encode(Configuration config) {
+        return codec.encode((C) config);
+    }
+
+    /**
+     * Writes the distinct values of a sorted array to a file
+     */
+    private static void writeRun(long[] states, int count, Path file)
+            throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || states[i] != states[i - 1]) {
+                    out.writeLong(states[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Total number of configurations generated during solve
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return Number of unique configurations generated during solve
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * Reads the packed configurations of a file in order, memory mapping
+     * one window of the file at a time.
+     */
+    private static class LayerReader implements Closeable {
+        private final FileChannel channel;
+        private final long length;
+        private long position = 0;
+        private LongBuffer window = LongBuffer.allocate(0);
+
+        private LayerReader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.length = channel.size() / Long.BYTES;
+        }
+
+        private boolean hasNext() {
+            return position < length;
+        }
+
+        private long peek() {
+            if (!window.hasRemaining()) {
+                map();
+            }
+            return window.get(window.position());
+        }
+
+        private long next() {
+            if (!window.hasRemaining()) {
+                map();
+            }
+            position++;
+            return window.get();
+        }
+
+        /**
+         * Maps the window of the file that starts at the current position
+         */
+        private void map() {
+            try {
+                long size = Math.min(length - position, WINDOW_SIZE);
+                window = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position * Long.BYTES, size * Long.BYTES)
+                        .asLongBuffer();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package puzzles.common.solver;
+
+/**
+ * Frontier interface that holds the configurations a search engine still
+ * has to expand. The order configurations are removed in decides the kind
+ * of search, a first in first out frontier gives a BFS.
+ */
+public interface Frontier {
+    /**
+     * Adds a configuration to the frontier
+     *
+     * @param config configuration to expand later
+     */
+    void add(Configuration config);
+
+    /**
+     * Removes the next configuration to expand from the frontier
+     *
+     * @return next configuration to expand
+     * @throws java.util.NoSuchElementException if the frontier is empty
+     */
+    Configuration remove();
+
+    /**
+     * @return true if there are no configurations left to expand.
+     * Returns false otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * @return number of configurations waiting in the frontier
+     */
+    int size();
+}
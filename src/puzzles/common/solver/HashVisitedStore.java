@@ -0,0 +1,61 @@
+package puzzles.common.solver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Visited store backed by a HashMap from each configuration to the
+ * configuration it was reached from.
+ */
+public class HashVisitedStore implements VisitedStore {
+    private final Map<Configuration, Configuration> predecessors;
+
+    /**
+     * Creates a new empty store
+     */
+    public HashVisitedStore() {
+        this.predecessors = new HashMap<>();
+    }
+
+    /**
+     * Creates a new empty store sized for the expected number of
+     * configurations, so it does not have to rehash while searching
+     *
+     * @param expectedSize number of configurations expected to be visited
+     */
+    public HashVisitedStore(int expectedSize) {
+        this.predecessors = new HashMap<>(
+                (int) Math.min((long) expectedSize * 4 / 3 + 1,
+                        Integer.MAX_VALUE));
+    }
+
+    /**
+     * Creates a store on top of an existing predecessor map
+     *
+     * @param predecessors map from each configuration to the configuration
+     *                     it was reached from
+     */
+    HashVisitedStore(Map<Configuration, Configuration> predecessors) {
+        this.predecessors = predecessors;
+    }
+
+    @Override
+    public boolean add(Configuration config, Configuration parent) {
+        return predecessors.putIfAbsent(config, parent) == null;
+    }
+
+    @Override
+    public boolean contains(Configuration config) {
+        return predecessors.containsKey(config);
+    }
+
+    @Override
+    public Configuration getParent(Configuration config) {
+        return predecessors.get(config);
+    }
+
+    @Override
+    public int size() {
+        return predecessors.size();
+    }
+}
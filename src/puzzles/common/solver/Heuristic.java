@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+/**
+ * Estimates how many moves are left from a configuration to the goal.
+ * Informed search engines expand the configurations with the smallest
+ * estimate first. The estimate must never be more than the real number of
+ * moves left, otherwise the path found may not be the shortest one.
+ *
+ * @param <C> type of configuration the heuristic estimates
+ */
+public interface Heuristic<C extends Configuration> {
+    /** estimate for a configuration that can never reach the goal */
+    int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * @param config configuration to estimate
+     * @return lower bound on the number of moves from the configuration to
+     * the goal, 0 for a goal configuration, or UNREACHABLE if the goal can
+     * not be reached from it
+     */
+    int estimate(C config);
+}
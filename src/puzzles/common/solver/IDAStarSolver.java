@@ -0,0 +1,132 @@
+package puzzles.common.solver;
+
+import java.util.*;
+
+/**
+ * Solves puzzles using the iterative deepening A* algorithm. It runs a
+ * series of depth first searches, each one cut off at configurations whose
+ * moves made plus estimated moves left is over a bound, and raises the bound
+ * to the smallest value that was cut off until a goal is found. Only the
+ * current path is kept in memory, so it can solve puzzles whose visited set
+ * would not fit, at the cost of expanding some configurations more than once.
+ *
+ * @param <C> type of configuration being solved
+ */
+public class IDAStarSolver<C extends Configuration> {
+    /** returned by a search that found the goal */
+    private static final int FOUND = -1;
+
+    private long totalConfigs = 1;
+    private long expandedConfigs = 0;
+    private int iterations = 0;
+
+    /** estimates the moves left from a configuration */
+    private final Heuristic<C> heuristic;
+
+    /** configurations on the path currently being searched */
+    private final List<Configuration> path = new ArrayList<>();
+
+    /** same configurations as path, used to skip cycles */
+    private final Set<Configuration> onPath = new HashSet<>();
+
+    /**
+     * Creates new solver object
+     *
+     * @param heuristic estimates the moves left from a configuration
+     */
+    public IDAStarSolver(Heuristic<C> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Runs the IDA* algorithm from the starting config until a goal config
+     * is found and generates the path between them. The counts start over
+     * with every call.
+     *
+     * @param start Starting configuration
+     * @return A list that represents the path from the starting config
+     * to the ending config, or an empty list if there is no solution.
+     */
+    public List<Configuration> solve(C start) {
+        totalConfigs = 1;
+        expandedConfigs = 0;
+        iterations = 0;
+        path.clear();
+        onPath.clear();
+        int bound = heuristic.estimate(start);
+        path.add(start);
+        onPath.add(start);
+
+        while (bound != Heuristic.UNREACHABLE) {
+            iterations++;
+            int result = search(start, 0, bound);
+            if (result == FOUND) {
+                return new ArrayList<>(path);
+            }
+            bound = result;
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Depth first search below the last configuration on the path
+     *
+     * @param current last configuration on the path
+     * @param moves number of moves made to reach it
+     * @param bound largest total estimate allowed in this iteration
+     * @return FOUND if the path now ends in a goal, otherwise the smallest
+     * total estimate over the bound, or UNREACHABLE if there was none
+     */
+    @SuppressWarnings("unchecked")
+    private int search(C current, int moves, int bound) {
+        int estimate = heuristic.estimate(current);
+        if (estimate == Heuristic.UNREACHABLE) {
+            return Heuristic.UNREACHABLE;
+        }
+        int total = moves + estimate;
+        if (total > bound) {
+            return total;
+        }
+        if (current.isGoal()) {
+            return FOUND;
+        }
+        expandedConfigs++;
+        int smallest = Heuristic.UNREACHABLE;
+        for (Configuration successor: current.getSuccessors()) {
+            totalConfigs++;
+            if (!onPath.add(successor)) {
+                continue;
+            }
+            path.add(successor);
+            int result = search((C) successor, moves + 1, bound);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            smallest = Math.min(smallest, result);
+            path.remove(path.size() - 1);
+            onPath.remove(successor);
+        }
+        return smallest;
+    }
+
+    /**
+     * @return Total number of configurations generated during solve
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return Number of configurations expanded during solve
+     */
+    public long getExpandedConfigs() {
+        return expandedConfigs;
+    }
+
+    /**
+     * @return Number of depth first searches run during solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+}
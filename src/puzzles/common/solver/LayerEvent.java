@@ -0,0 +1,29 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event recorded every time a BFS finishes expanding a layer
+ */
+@Name("puzzles.solver.Layer")
+@Label("Solver Layer")
+@Category("Puzzle Solver")
+@Description("A BFS layer was fully expanded")
+@StackTrace(false)
+class LayerEvent extends jdk.jfr.Event {
+    @Label("Depth")
+    @Description("Depth of the configurations found")
+    int depth;
+
+    @Label("Configurations")
+    @Description("Number of new configurations found at this depth")
+    long configs;
+
+    @Label("Generated")
+    @Description("Number of successors generated to find them")
+    long generated;
+}
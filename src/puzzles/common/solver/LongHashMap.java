@@ -0,0 +1,145 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from long keys to long values that stores both in plain arrays
+ * using open addressing with linear probing. No object is allocated per
+ * entry, so it takes 16 bytes per slot where a HashMap of boxed values
+ * takes several times that. Keys must not be negative.
+ */
+public class LongHashMap {
+    /** marks a slot that has no key */
+    private static final long EMPTY = -1;
+
+    /** returned by get when a key is not in the map */
+    public static final long MISSING = -1;
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /** most slots the map can have, the largest power of two an array
+     * can be */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+    private long[] values;
+    private int size = 0;
+
+    /**
+     * Creates a new empty map
+     */
+    public LongHashMap() {
+        this(16);
+    }
+
+    /**
+     * Creates a new empty map with room for the given number of entries
+     * before it has to grow, or with as many slots as a map can have if
+     * there are too many of them
+     *
+     * @param expectedSize number of entries expected to be added
+     */
+    public LongHashMap(int expectedSize) {
+        int wanted = (int) Math.min((long) (expectedSize / (double) LOAD_FACTOR),
+                MAX_CAPACITY);
+        int capacity = Integer.highestOneBit(Math.max(wanted, 2) - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds a key with its value if the key is not in the map yet
+     *
+     * @param key key to add, must not be negative
+     * @param value value of the key
+     * @return true if the key was added, false if it was already there
+     * @throws IllegalStateException if the map is as large as it can get
+     */
+    public boolean putIfAbsent(long key, long value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key: " + key);
+        }
+        int slot = slot(key, keys);
+        if (keys[slot] == key) {
+            return false;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param key key to look up
+     * @return the value of the key, or MISSING if it is not in the map
+     */
+    public long get(long key) {
+        if (key < 0) {
+            return MISSING;
+        }
+        int slot = slot(key, keys);
+        return keys[slot] == key ? values[slot] : MISSING;
+    }
+
+    /**
+     * @param key key to look up
+     * @return true if the key is in the map, false otherwise
+     */
+    public boolean containsKey(long key) {
+        return key >= 0 && keys[slot(key, keys)] == key;
+    }
+
+    /**
+     * @return number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the slot that holds the key, or the empty slot it would go in
+     */
+    private static int slot(long key, long[] keys) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the key so packed values that only differ in a
+     * few low bits do not pile up in neighbouring slots
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Doubles the number of slots and puts every entry back in
+     */
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("LongHashMap can not hold more than " +
+                    (int) (MAX_CAPACITY * LOAD_FACTOR) + " keys");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package puzzles.common.solver;
+
+/**
+ * Visited store that keeps every configuration and its parent as packed
+ * long values in a LongHashMap. Configurations are only unpacked again
+ * when the path is rebuilt, so the visited configurations themselves can
+ * be garbage collected once they leave the frontier.
+ *
+ * @param <C> type of configuration being stored
+ */
+public class PackedVisitedStore<C extends Configuration> implements VisitedStore {
+    private final StateCodec<C> codec;
+    private final LongHashMap predecessors;
+
+    /**
+     * Creates a new empty store
+     *
+     * @param codec packs and unpacks the configurations
+     */
+    public PackedVisitedStore(StateCodec<C> codec) {
+        this.codec = codec;
+        this.predecessors = new LongHashMap();
+    }
+
+    /**
+     * Creates a new empty store sized for the expected number of
+     * configurations, so it does not have to grow while searching
+     *
+     * @param codec packs and unpacks the configurations
+     * @param expectedSize number of configurations expected to be visited
+     */
+    public PackedVisitedStore(StateCodec<C> codec, int expectedSize) {
+        this.codec = codec;
+        this.predecessors = new LongHashMap(expectedSize);
+    }
+
+    @Override
+    public boolean add(Configuration config, Configuration parent) {
+        return predecessors.putIfAbsent(encode(config), encode(parent));
+    }
+
+    @Override
+    public boolean contains(Configuration config) {
+        return predecessors.containsKey(encode(config));
+    }
+
+    @Override
+    public Configuration getParent(Configuration config) {
+        long parent = predecessors.get(encode(config));
+        return parent == LongHashMap.MISSING ? null : codec.decode(parent);
+    }
+
+    @Override
+    public int size() {
+        return predecessors.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private long encode(Configuration config) {
+        return codec.encode((C) config);
+    }
+}
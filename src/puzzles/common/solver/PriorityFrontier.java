@@ -0,0 +1,68 @@
+package puzzles.common.solver;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Frontier that always removes the smallest configuration according to the
+ * given comparator. Configurations that compare equal are removed in the
+ * order they were added, so a comparator that ranks everything the same
+ * still gives a BFS.
+ */
+public class PriorityFrontier implements Frontier {
+    private final PriorityQueue<Entry> queue;
+    private long added = 0;
+
+    /**
+     * Creates a new empty frontier
+     *
+     * @param comparator decides which configuration is expanded first
+     */
+    public PriorityFrontier(Comparator<? super Configuration> comparator) {
+        Comparator<Entry> byConfig = (a, b) ->
+                comparator.compare(a.config, b.config);
+        this.queue = new PriorityQueue<>(
+                byConfig.thenComparingLong(entry -> entry.order));
+    }
+
+    @Override
+    public void add(Configuration config) {
+        queue.add(new Entry(config, added++));
+    }
+
+    /**
+     * @return the smallest configuration in the frontier
+     */
+    @Override
+    public Configuration remove() {
+        Entry entry = queue.poll();
+        if (entry == null) {
+            throw new NoSuchElementException("Frontier is empty");
+        }
+        return entry.config;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Configuration along with the order it was added in
+     */
+    private static class Entry {
+        private final Configuration config;
+        private final long order;
+
+        private Entry(Configuration config, long order) {
+            this.config = config;
+            this.order = order;
+        }
+    }
+}
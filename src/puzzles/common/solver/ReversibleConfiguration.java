@@ -0,0 +1,22 @@
+package puzzles.common.solver;
+
+import java.util.Collection;
+
+/**
+ * Configuration of a puzzle whose moves can be run backwards and whose goal
+ * configurations are known up front. This lets a search engine work from
+ * the goal towards the start as well as from the start towards the goal.
+ */
+public interface ReversibleConfiguration extends Configuration {
+    /**
+     * @return all configurations that have the current configuration as
+     * one of their successors
+     */
+    Collection<Configuration> getPredecessors();
+
+    /**
+     * @return every goal configuration of the puzzle the current
+     * configuration belongs to
+     */
+    Collection<Configuration> getGoals();
+}
@@ -0,0 +1,16 @@
+package puzzles.common.solver;
+
+/**
+ * Thrown when a search stops before it could find a path or prove there is
+ * none, because it ran out of budget or was cancelled.
+ */
+public class SearchAbortedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message why the search stopped
+     */
+    public SearchAbortedException(String message) {
+        super(message);
+    }
+}
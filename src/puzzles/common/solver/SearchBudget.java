@@ -0,0 +1,81 @@
+package puzzles.common.solver;
+
+import java.time.Duration;
+
+/**
+ * Limits on how much time, how many configurations and how much heap a
+ * search may use before it gives up. A budget is immutable, the with
+ * methods return a copy with one limit changed.
+ */
+public class SearchBudget {
+    /** budget with no limits */
+    private static final SearchBudget UNLIMITED =
+            new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final long maxNanos;
+    private final long maxConfigs;
+    private final long maxHeapBytes;
+
+    private SearchBudget(long maxNanos, long maxConfigs, long maxHeapBytes) {
+        this.maxNanos = maxNanos;
+        this.maxConfigs = maxConfigs;
+        this.maxHeapBytes = maxHeapBytes;
+    }
+
+    /**
+     * @return a budget with no limits
+     */
+    public static SearchBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param time longest the search may run for
+     * @return copy of this budget with the time limit changed
+     */
+    public SearchBudget withTime(Duration time) {
+        return new SearchBudget(time.toNanos(), maxConfigs, maxHeapBytes);
+    }
+
+    /**
+     * @param configs most configurations the search may generate
+     * @return copy of this budget with the configuration limit changed
+     */
+    public SearchBudget withConfigs(long configs) {
+        return new SearchBudget(maxNanos, configs, maxHeapBytes);
+    }
+
+    /**
+     * @param heapBytes most heap, in bytes, that may be in use while
+     *                  searching
+     * @return copy of this budget with the heap limit changed
+     */
+    public SearchBudget withHeapBytes(long heapBytes) {
+        return new SearchBudget(maxNanos, maxConfigs, heapBytes);
+    }
+
+    /**
+     * Checks the measurements of a running search against the limits
+     *
+     * @param metrics measurements of the running search
+     * @throws SearchAbortedException if a limit has been passed
+     */
+    void check(SolverMetrics metrics) {
+        if (metrics.getElapsedNanos() > maxNanos) {
+            throw new SearchAbortedException("Time limit of " +
+                    Duration.ofNanos(maxNanos) + " reached");
+        }
+        if (metrics.getTotalConfigs() > maxConfigs) {
+            throw new SearchAbortedException("Limit of " + maxConfigs +
+                    " configurations reached");
+        }
+        if (maxHeapBytes != Long.MAX_VALUE) {
+            Runtime runtime = Runtime.getRuntime();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            if (used > maxHeapBytes) {
+                throw new SearchAbortedException("Heap limit of " +
+                        maxHeapBytes + " bytes reached");
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package puzzles.common.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering a whole search, from start to goal or exhaustion
+ */
+@Name("puzzles.solver.Search")
+@Label("Solver Search")
+@Category("Puzzle Solver")
+@Description("A solver searched for a path to the goal")
+class SearchEvent extends jdk.jfr.Event {
+    @Label("Total Configurations")
+    long totalConfigs;
+
+    @Label("Unique Configurations")
+    long uniqueConfigs;
+
+    @Label("Depth")
+    @Description("Deepest layer reached")
+    int depth;
+
+    @Label("Peak Visited")
+    @Description("Largest number of configurations in the visited store")
+    long peakVisited;
+}
@@ -0,0 +1,75 @@
+package puzzles.common.solver;
+
+import java.util.List;
+
+/**
+ * Answer a strategy gave for a puzzle: the path it found and how many
+ * configurations it looked at to find it.
+ */
+public class Solution {
+    private final List<Configuration> path;
+    private final long totalConfigs;
+    private final long uniqueConfigs;
+    private final String strategy;
+
+    /**
+     * Creates a new solution
+     *
+     * @param path path from the starting config to the ending config, or
+     *             an empty list if there is none
+     * @param totalConfigs number of configurations generated
+     * @param uniqueConfigs number of different configurations generated
+     * @param strategy name of the strategy that found it
+     */
+    public Solution(List<Configuration> path, long totalConfigs,
+                    long uniqueConfigs, String strategy) {
+        this.path = path;
+        this.totalConfigs = totalConfigs;
+        this.uniqueConfigs = uniqueConfigs;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Makes the solution of a strategy that only ever builds the
+     * configurations on the path
+     *
+     * @param path path from the starting config to the ending config, or
+     *             an empty list if there is none
+     * @param strategy name of the strategy that found it
+     * @return the solution, counting the configurations on the path, or
+     * just the start if there is none, as both generated and unique
+     */
+    public static Solution ofPath(List<Configuration> path, String strategy) {
+        long configs = Math.max(path.size(), 1);
+        return new Solution(path, configs, configs, strategy);
+    }
+
+    /**
+     * @return path from the starting config to the ending config, or an
+     * empty list if there is none
+     */
+    public List<Configuration> getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of configurations generated
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return number of different configurations generated
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * @return name of the strategy that found the solution
+     */
+    public String getStrategy() {
+        return strategy;
+    }
+}
@@ -1,82 +1,451 @@
 package puzzles.common.solver;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
- * Solves puzzles using a BFS algorithm.
+ * Solves puzzles using a BFS algorithm. The frontier and the visited store
+ * the search runs on can be swapped out to fit the puzzle being solved.
+ * The search can also be run on multiple cores, one BFS layer at a time,
+ * or in the background with limits on how much it may use.
  */
 public class Solver {
-    private int totalConfigs = 1;
-    private int uniqueConfigs = 1;
+    /** number of configurations a layer task expands before splitting */
+    private static final int LAYER_SPLIT_THRESHOLD = 256;
+
+    /** number of configurations expanded between budget checks */
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    /** one in this many expansions times its visited store probes, which
+     * stands for the time spent probing in all of them */
+    private static final int VISITED_SAMPLE = 32;
+
+    /** measurements of the last search */
+    private final SolverMetrics metrics = new SolverMetrics();
+
+    /** makes the frontier used by each search */
+    private final Supplier<Frontier> frontierFactory;
+
+    /** makes the visited store used by each search */
+    private final Supplier<VisitedStore> visitedFactory;
+
+    /** limits on every search that is not given a budget of its own */
+    private final SearchBudget budget;
 
     /**
-     * Creates new solver object
+     * Creates new solver object that searches with a first in first out
+     * array frontier and a hash based visited store
      */
-    public Solver() {}
+    public Solver() {
+        this(ArrayFrontier::new, HashVisitedStore::new);
+    }
+
+    /**
+     * Creates new solver object that searches with the given structures.
+     * A new frontier and visited store is made for every search.
+     *
+     * @param frontierFactory makes the frontier of configurations to expand
+     * @param visitedFactory makes the store of visited configurations
+     */
+    public Solver(Supplier<Frontier> frontierFactory,
+                  Supplier<VisitedStore> visitedFactory) {
+        this(frontierFactory, visitedFactory, SearchBudget.unlimited());
+    }
+
+    private Solver(Supplier<Frontier> frontierFactory,
+                   Supplier<VisitedStore> visitedFactory, SearchBudget budget) {
+        this.frontierFactory = frontierFactory;
+        this.visitedFactory = visitedFactory;
+        this.budget = budget;
+    }
+
+    /**
+     * @param budget limits on every search doBFS runs without a budget of
+     *               its own
+     * @return new solver with the same structures that gives up once a
+     * search goes over the budget
+     */
+    public Solver withBudget(SearchBudget budget) {
+        return new Solver(frontierFactory, visitedFactory, budget);
+    }
 
     /**
      * Runs a BFS algorithm to go through all possible configurations of a
      * puzzle and generates a path from the starting config to the ending
-     * config. Keeps track of the total number of configurations and the
-     * number of unique configurations.
+     * config. Records the measurements of the search in the metrics.
      *
      * @param start Starting configuration
      * @return A list that represents the path from the starting config
      * to the ending config.
+     * @throws SearchAbortedException if the solver was given a budget and
+     * it ran out first
      */
     public List<Configuration> doBFS(Configuration start) {
+        return doBFS(start, budget, () -> false);
+    }
+
+    /**
+     * Runs the BFS like doBFS, but gives up once the search goes over
+     * the budget.
+     *
+     * @param start Starting configuration
+     * @param budget limits on the search
+     * @return A list that represents the path from the starting config
+     * to the ending config.
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public List<Configuration> doBFS(Configuration start, SearchBudget budget) {
+        return doBFS(start, budget, () -> false);
+    }
+
+    /**
+     * Starts the BFS on the given executor and returns right away. The
+     * future completes with the path, or exceptionally with a
+     * SearchAbortedException if the budget runs out. Cancelling the future
+     * stops the search the next time it checks its budget. The solver
+     * should not be used for another search until the future is done.
+     *
+     * @param start Starting configuration
+     * @param budget limits on the search
+     * @param executor runs the search
+     * @return future path from the starting config to the ending config
+     */
+    public CompletableFuture<List<Configuration>> solveAsync(
+            Configuration start, SearchBudget budget, Executor executor) {
+        CompletableFuture<List<Configuration>> result = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                result.complete(doBFS(start, budget, result::isCancelled));
+            }
+            catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs the BFS, checking the budget and whether the search was
+     * cancelled every few expansions
+     *
+     * @param start Starting configuration
+     * @param budget limits on the search
+     * @param cancelled returns true once the search should stop
+     * @return A list that represents the path from the starting config
+     * to the ending config.
+     * @throws SearchAbortedException if the search stopped early
+     */
+    private List<Configuration> doBFS(Configuration start, SearchBudget budget,
+                                      BooleanSupplier cancelled) {
+        metrics.start();
+
         //Make queue of configurations to go through
-        List<Configuration> queue = new LinkedList<>();
+        Frontier queue = frontierFactory.get();
         queue.add(start);
 
-        //Make map of predecessors for already visited configurations
-        Map<Configuration, Configuration> predecessors = new HashMap<>();
-        predecessors.put(start, start);
+        //Make store of predecessors for already visited configurations
+        VisitedStore predecessors = visitedFactory.get();
+        predecessors.add(start, start);
 
-        //Construct predecessors map
+        //Construct predecessors store, counting down the configurations
+        //left in the current layer to know when the next one begins. Each
+        //successor is checked against the store as soon as it is generated
+        ExpandSink sink = new ExpandSink(predecessors, queue);
         Configuration end = null;
+        int layerLeft = 1;
+        int nextLayer = 0;
+        int untilCheck = BUDGET_CHECK_INTERVAL;
         while (!queue.isEmpty()) {
-            Configuration current = queue.remove(0);
+            Configuration current = queue.remove();
             if (current.isGoal()) {
                 end = current;
                 break;
             }
-            for (Configuration successor: current.getSuccessors()) {
-                totalConfigs++;
-                if (!predecessors.containsKey(successor)) {
-                    uniqueConfigs++;
-                    predecessors.put(successor, current);
-                    queue.add(successor);
+            if (--untilCheck == 0) {
+                untilCheck = BUDGET_CHECK_INTERVAL;
+                if (cancelled.getAsBoolean()) {
+                    metrics.finish(predecessors.size());
+                    throw new SearchAbortedException("Search cancelled");
+                }
+                try {
+                    budget.check(metrics);
+                }
+                catch (SearchAbortedException e) {
+                    metrics.finish(predecessors.size());
+                    throw e;
                 }
             }
+            long expandStart = System.nanoTime();
+            boolean timed = untilCheck % VISITED_SAMPLE == 0;
+            sink.expand(current, timed);
+            long expandNanos = System.nanoTime() - expandStart;
+            long visitedNanos = timed ? sink.visitedNanos * VISITED_SAMPLE : 0;
+            metrics.expanded(sink.generated, sink.unique,
+                    expandNanos - visitedNanos, visitedNanos);
+            nextLayer += sink.unique;
+            if (--layerLeft == 0) {
+                metrics.layerDone();
+                layerLeft = nextLayer;
+                nextLayer = 0;
+            }
         }
+        metrics.finish(predecessors.size());
+
+        return buildPath(predecessors, start, end);
+    }
+
+    /**
+     * Runs the BFS on the common fork/join pool. See
+     * {@link #doParallelBFS(Configuration, ForkJoinPool)}.
+     *
+     * @param start Starting configuration
+     * @return A list that represents the path from the starting config
+     * to the ending config.
+     */
+    public List<Configuration> doParallelBFS(Configuration start) {
+        return doParallelBFS(start, ForkJoinPool.commonPool());
+    }
 
-        //Construct path
-        List<Configuration> path = new LinkedList<>();
-        if (predecessors.containsKey(end)) {
+    /**
+     * Runs a level synchronous BFS where every layer of configurations is
+     * expanded in parallel on the given pool. Each successor is checked
+     * for the goal as soon as it is reached for the first time, and the
+     * layer stops being expanded once one is found. Every goal of the next
+     * layer is as far from the start as any other, so the path found is
+     * always as short as the one doBFS finds. Configurations are
+     * deduplicated against a concurrent map, so getSuccessors, equals and
+     * hashCode of the configurations must be safe to call from several
+     * threads. The frontier and visited store factories are not used.
+     *
+     * @param start Starting configuration
+     * @param pool pool the layers are expanded on
+     * @return A list that represents the path from the starting config
+     * to the ending config.
+     */
+    public List<Configuration> doParallelBFS(Configuration start,
+                                             ForkJoinPool pool) {
+        metrics.start();
+        ConcurrentHashMap<Configuration, Configuration> predecessors =
+                new ConcurrentHashMap<>();
+        predecessors.put(start, start);
+
+        List<Configuration> layer = List.of(start);
+        Configuration end = start.isGoal() ? start : null;
+        while (end == null && !layer.isEmpty()) {
+            LayerCounts counts = new LayerCounts();
+            layer = pool.invoke(new LayerTask(
+                    layer, 0, layer.size(), predecessors, counts));
+            metrics.expanded(counts.generated.sum(), layer.size(),
+                    counts.successorNanos.sum(), counts.visitedNanos.sum());
+            end = counts.goal.get();
+            //A layer cut short by a goal is counted when the search finishes
+            if (end == null) {
+                metrics.layerDone();
+            }
+        }
+        metrics.finish(predecessors.size());
+
+        return buildPath(new HashVisitedStore(predecessors), start, end);
+    }
+
+    /**
+     * Checks each successor of an expansion against the visited store as
+     * soon as it is generated and adds the new ones to the frontier, so the
+     * successors are never collected. One sink is reused for every
+     * expansion of a search. Timing every probe would slow the search
+     * down, so only the expansions asked to are timed.
+     */
+    private static class ExpandSink implements SuccessorSink {
+        private final VisitedStore predecessors;
+        private final Frontier queue;
+
+        /** configuration being expanded and whether its probes are timed */
+        private Configuration parent;
+        private boolean timed;
+
+        /** counts and time spent in the visited store for the expansion */
+        private int generated;
+        private int unique;
+        private long visitedNanos;
+
+        private ExpandSink(VisitedStore predecessors, Frontier queue) {
+            this.predecessors = predecessors;
+            this.queue = queue;
+        }
+
+        /**
+         * Generates the successors of a configuration into the store and
+         * the frontier
+         *
+         * @param current configuration to expand
+         * @param timed true to time the probes of the visited store
+         */
+        private void expand(Configuration current, boolean timed) {
+            this.parent = current;
+            this.timed = timed;
+            this.generated = 0;
+            this.unique = 0;
+            this.visitedNanos = 0;
+            current.forEachSuccessor(this);
+        }
+
+        @Override
+        public void accept(Configuration successor) {
+            generated++;
+            long probeStart = timed ? System.nanoTime() : 0;
+            if (predecessors.add(successor, parent)) {
+                unique++;
+                queue.add(successor);
+            }
+            if (timed) {
+                visitedNanos += System.nanoTime() - probeStart;
+            }
+        }
+    }
+
+    /**
+     * Follows the predecessors from the ending config back to the
+     * starting config.
+     *
+     * @param predecessors store of visited configurations
+     * @param start Starting configuration
+     * @param end Ending configuration, null if none was found
+     * @return the path from start to end, or an empty list if there is none
+     */
+    private static List<Configuration> buildPath(VisitedStore predecessors,
+                                                 Configuration start,
+                                                 Configuration end) {
+        List<Configuration> path = new ArrayList<>();
+        if (end != null && predecessors.contains(end)) {
             Configuration current = end;
             while (!current.equals(start)) {
-                path.add(0, current);
-                current = predecessors.get(current);
+                path.add(current);
+                current = predecessors.getParent(current);
             }
-            path.add(0, start);
+            path.add(start);
+            Collections.reverse(path);
         }
-
         return path;
     }
 
+    /**
+     * Expands a range of one BFS layer and returns the configurations of
+     * the next layer that were reached for the first time. Large ranges are
+     * split in half and expanded by separate tasks. The task is also the
+     * sink its successors are checked in as they are generated, and it
+     * stops early once any task of the layer has found a goal.
+     */
+    private static class LayerTask extends RecursiveTask<List<Configuration>>
+            implements SuccessorSink {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Configuration> layer;
+        private final int from;
+        private final int to;
+        private final ConcurrentHashMap<Configuration, Configuration> predecessors;
+        private final LayerCounts counts;
+
+        /** state of the expansion that is running */
+        private final List<Configuration> next = new ArrayList<>();
+        private Configuration parent;
+        private boolean timed;
+        private long generated = 0;
+        private long visitedNanos = 0;
+
+        private LayerTask(List<Configuration> layer, int from, int to,
+                          ConcurrentHashMap<Configuration, Configuration> predecessors,
+                          LayerCounts counts) {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+            this.predecessors = predecessors;
+            this.counts = counts;
+        }
+
+        @Override
+        protected List<Configuration> compute() {
+            if (to - from > LAYER_SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                LayerTask left = new LayerTask(layer, from, middle,
+                        predecessors, counts);
+                LayerTask right = new LayerTask(layer, middle, to,
+                        predecessors, counts);
+                left.fork();
+                List<Configuration> next = right.compute();
+                List<Configuration> leftNext = left.join();
+                leftNext.addAll(next);
+                return leftNext;
+            }
+
+            long expandNanos = 0;
+            for (int i = from; i < to && counts.goal.get() == null; i++) {
+                long expandStart = System.nanoTime();
+                parent = layer.get(i);
+                timed = i % VISITED_SAMPLE == 0;
+                parent.forEachSuccessor(this);
+                expandNanos += System.nanoTime() - expandStart;
+            }
+            long visited = visitedNanos * VISITED_SAMPLE;
+            counts.generated.add(generated);
+            counts.successorNanos.add(expandNanos - visited);
+            counts.visitedNanos.add(visited);
+            return next;
+        }
+
+        @Override
+        public void accept(Configuration successor) {
+            generated++;
+            long probeStart = timed ? System.nanoTime() : 0;
+            if (predecessors.putIfAbsent(successor, parent) == null) {
+                next.add(successor);
+                if (successor.isGoal()) {
+                    counts.goal.compareAndSet(null, successor);
+                }
+            }
+            if (timed) {
+                visitedNanos += System.nanoTime() - probeStart;
+            }
+        }
+    }
+
+    /**
+     * Totals the layer tasks of one layer add to as they finish, and the
+     * first goal any of them found
+     */
+    private static class LayerCounts {
+        private final LongAdder generated = new LongAdder();
+        private final LongAdder successorNanos = new LongAdder();
+        private final LongAdder visitedNanos = new LongAdder();
+        private final AtomicReference<Configuration> goal = new AtomicReference<>();
+    }
+
     /**
      * @return Total number of configurations generated during doBFS
      */
-    public int getTotalConfigs() {
-        return totalConfigs;
+    public long getTotalConfigs() {
+        return metrics.getTotalConfigs();
     }
 
     /**
      * @return Number of unique configurations generated during doBFS
      */
-    public int getUniqueConfigs() {
-        return uniqueConfigs;
+    public long getUniqueConfigs() {
+        return metrics.getUniqueConfigs();
+    }
+
+    /**
+     * @return measurements of the last search
+     */
+    public SolverMetrics getMetrics() {
+        return metrics;
     }
 
 }
@@ -0,0 +1,191 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measurements of the last search a solver ran. Besides the number of
+ * configurations generated, it keeps the size of every BFS layer, the time
+ * spent generating successors compared to the time spent checking them
+ * against the visited store, and the size the visited store grew to.
+ * Successors are checked as they are generated, so the split between the
+ * two times is estimated from a sample of the expansions.
+ * Every finished layer and search is also recorded as a JFR event, so the
+ * search can be inspected in a flight recording.
+ */
+public class SolverMetrics {
+    private long totalConfigs = 1;
+    private long uniqueConfigs = 1;
+    private long peakVisited = 1;
+    private long successorNanos = 0;
+    private long visitedNanos = 0;
+    private long startNanos = 0;
+    private long endNanos = 0;
+
+    /** number of configurations found at each depth */
+    private final List<Long> layerSizes = new ArrayList<>();
+
+    /** configurations generated and found when the current layer began */
+    private long layerTotalStart = 1;
+    private long layerUniqueStart = 1;
+
+    /** event covering the whole search */
+    private SearchEvent searchEvent;
+
+    /**
+     * Clears the measurements and starts timing a new search from a
+     * single starting configuration
+     */
+    void start() {
+        totalConfigs = 1;
+        uniqueConfigs = 1;
+        peakVisited = 1;
+        successorNanos = 0;
+        visitedNanos = 0;
+        layerSizes.clear();
+        layerSizes.add(1L);
+        layerTotalStart = 1;
+        layerUniqueStart = 1;
+        searchEvent = new SearchEvent();
+        searchEvent.begin();
+        startNanos = System.nanoTime();
+        endNanos = 0;
+    }
+
+    /**
+     * Records the expansion of one or more configurations
+     *
+     * @param generated number of successors generated
+     * @param unique number of those successors not visited before
+     * @param successorTime nanoseconds spent generating successors
+     * @param visitedTime nanoseconds spent checking the successors against
+     *                    the visited store and adding them to the frontier
+     */
+    void expanded(long generated, long unique,
+                  long successorTime, long visitedTime) {
+        totalConfigs += generated;
+        uniqueConfigs += unique;
+        successorNanos += successorTime;
+        visitedNanos += visitedTime;
+    }
+
+    /**
+     * Records that every configuration of the deepest layer has been
+     * expanded, which makes the configurations found since the next layer
+     */
+    void layerDone() {
+        long size = uniqueConfigs - layerUniqueStart;
+        LayerEvent event = new LayerEvent();
+        event.depth = layerSizes.size();
+        event.configs = size;
+        event.generated = totalConfigs - layerTotalStart;
+        event.commit();
+
+        layerSizes.add(size);
+        layerTotalStart = totalConfigs;
+        layerUniqueStart = uniqueConfigs;
+    }
+
+    /**
+     * Stops timing the search
+     *
+     * @param visited number of configurations in the visited store
+     */
+    void finish(long visited) {
+        endNanos = System.nanoTime();
+        peakVisited = Math.max(peakVisited, visited);
+        if (uniqueConfigs > layerUniqueStart) {
+            layerSizes.add(uniqueConfigs - layerUniqueStart);
+        }
+        searchEvent.totalConfigs = totalConfigs;
+        searchEvent.uniqueConfigs = uniqueConfigs;
+        searchEvent.depth = layerSizes.size() - 1;
+        searchEvent.peakVisited = peakVisited;
+        searchEvent.commit();
+    }
+
+    /**
+     * @return Total number of configurations generated
+     */
+    public long getTotalConfigs() {
+        return totalConfigs;
+    }
+
+    /**
+     * @return Number of unique configurations generated
+     */
+    public long getUniqueConfigs() {
+        return uniqueConfigs;
+    }
+
+    /**
+     * @return fraction of the generated configurations that had already
+     * been visited
+     */
+    public double getDuplicateRatio() {
+        return (double) (totalConfigs - uniqueConfigs) / totalConfigs;
+    }
+
+    /**
+     * @return number of configurations found at each depth, starting with
+     * the starting configuration at depth 0. The last layer may only be
+     * partly found if the search stopped at a goal. Only meaningful for a
+     * first in first out frontier.
+     */
+    public List<Long> getLayerSizes() {
+        return Collections.unmodifiableList(layerSizes);
+    }
+
+    /**
+     * @return largest number of configurations held in the visited store
+     */
+    public long getPeakVisited() {
+        return peakVisited;
+    }
+
+    /**
+     * @return estimated nanoseconds spent generating successors
+     */
+    public long getSuccessorNanos() {
+        return successorNanos;
+    }
+
+    /**
+     * @return estimated nanoseconds spent hashing and comparing successors
+     * against the visited store and adding them to the frontier
+     */
+    public long getVisitedNanos() {
+        return visitedNanos;
+    }
+
+    /**
+     * @return nanoseconds the search took, up to now if it is still running
+     */
+    public long getElapsedNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    /**
+     * @return number of configurations generated per second
+     */
+    public double getConfigsPerSecond() {
+        long elapsed = getElapsedNanos();
+        return elapsed == 0 ? 0 : totalConfigs * 1e9 / elapsed;
+    }
+
+    /**
+     * @return String that summarizes the measurements over several lines
+     */
+    @Override
+    public String toString() {
+        return "Total configs: " + totalConfigs + "\n" +
+                "Unique configs: " + uniqueConfigs + "\n" +
+                "Duplicate ratio: " + String.format("%.3f", getDuplicateRatio()) + "\n" +
+                "Peak visited: " + peakVisited + "\n" +
+                "Layer sizes: " + layerSizes + "\n" +
+                "Configs/sec: " + String.format("%.0f", getConfigsPerSecond()) + "\n" +
+                "Successor ms: " + successorNanos / 1_000_000 + "\n" +
+                "Visited ms: " + visitedNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,33 @@
+package puzzles.common.solver;
+
+/**
+ * A way of solving some puzzles, such as a closed form answer, a
+ * heuristic search or a plain BFS. Puzzles register their strategies as
+ * services of this interface, and the StrategyRegistry picks one for each
+ * starting configuration. Strategies must be safe to use from several
+ * threads at once, since one instance is shared by every caller.
+ */
+public interface SolverStrategy {
+    /**
+     * @return short name of the strategy
+     */
+    String getName();
+
+    /**
+     * @return how early the strategy is tried, higher first
+     */
+    int getPriority();
+
+    /**
+     * @param start Starting configuration
+     * @return true if the strategy can solve the puzzle, false if another
+     * one has to
+     */
+    boolean supports(Configuration start);
+
+    /**
+     * @param start Starting configuration, which the strategy supports
+     * @return the solution, with an empty path if there is none
+     */
+    Solution solve(Configuration start);
+}
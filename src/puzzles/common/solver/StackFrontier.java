@@ -0,0 +1,55 @@
+package puzzles.common.solver;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Last in first out frontier backed by a growable array. Using it turns the
+ * search into a depth first search, so the path found is not guaranteed to
+ * be the shortest one.
+ */
+public class StackFrontier implements Frontier {
+    private Configuration[] elements = new Configuration[16];
+    private int size = 0;
+
+    /**
+     * Creates a new empty frontier
+     */
+    public StackFrontier() {}
+
+    /**
+     * Pushes a configuration on top of the frontier
+     *
+     * @param config configuration to expand later
+     */
+    @Override
+    public void add(Configuration config) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = config;
+    }
+
+    /**
+     * @return the configuration that was added last
+     */
+    @Override
+    public Configuration remove() {
+        if (size == 0) {
+            throw new NoSuchElementException("Frontier is empty");
+        }
+        Configuration config = elements[--size];
+        elements[size] = null;
+        return config;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,23 @@
+package puzzles.common.solver;
+
+/**
+ * Packs configurations of one puzzle into a single long and unpacks them
+ * again. Search engines can then keep visited configurations as primitive
+ * values instead of objects, which takes a fraction of the memory.
+ *
+ * @param <C> type of configuration being packed
+ */
+public interface StateCodec<C extends Configuration> {
+    /**
+     * @param config configuration to pack
+     * @return a value that is never negative and is the same for two
+     * configurations exactly when they are equal
+     */
+    long encode(C config);
+
+    /**
+     * @param state value made by encode
+     * @return the configuration the value was made from
+     */
+    C decode(long state);
+}
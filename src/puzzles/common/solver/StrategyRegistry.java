@@ -0,0 +1,127 @@
+package puzzles.common.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Chooses how to solve each puzzle. The strategies registered as services
+ * of SolverStrategy are tried from the highest priority down, and the
+ * first one that supports the starting configuration solves it. A BFS
+ * with the default Solver comes last and supports everything.
+ */
+public class StrategyRegistry {
+    /** registry of the strategies found on the module or class path */
+    private static final StrategyRegistry DEFAULT =
+            new StrategyRegistry(ServiceLoader.load(SolverStrategy.class));
+
+    /** strategies from the highest priority down, ending with the BFS */
+    private final List<SolverStrategy> strategies;
+
+    /**
+     * Creates a registry of the given strategies and the BFS
+     *
+     * @param strategies strategies to choose from
+     */
+    public StrategyRegistry(Iterable<SolverStrategy> strategies) {
+        List<SolverStrategy> sorted = new ArrayList<>();
+        for (SolverStrategy strategy: strategies) {
+            sorted.add(strategy);
+        }
+        sorted.sort(Comparator.comparingInt(SolverStrategy::getPriority).reversed());
+        sorted.add(new BreadthFirst());
+        this.strategies = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return registry of every strategy registered as a service
+     */
+    public static StrategyRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return strategies in the order they are tried
+     */
+    public List<SolverStrategy> getStrategies() {
+        return strategies;
+    }
+
+    /**
+     * @param start Starting configuration
+     * @return the first strategy that supports the puzzle
+     */
+    public SolverStrategy choose(Configuration start) {
+        for (SolverStrategy strategy: strategies) {
+            if (strategy.supports(start)) {
+                return strategy;
+            }
+        }
+        throw new IllegalStateException("No strategy for " + start);
+    }
+
+    /**
+     * Solves the puzzle with the first strategy that supports it
+     *
+     * @param start Starting configuration
+     * @return the solution, with an empty path if there is none
+     */
+    public Solution solve(Configuration start) {
+        return choose(start).solve(start);
+    }
+
+    /**
+     * Solves the puzzle with the first registered strategy that supports
+     * it, or with a BFS by the given solver if none does, so a puzzle can
+     * search with the frontier and visited store that suit it
+     *
+     * @param start Starting configuration
+     * @param fallback solver of the BFS if no strategy supports the puzzle
+     * @return the solution, with an empty path if there is none
+     */
+    public Solution solve(Configuration start, Solver fallback) {
+        SolverStrategy strategy = choose(start);
+        if (strategy instanceof BreadthFirst) {
+            return BreadthFirst.search(fallback, start);
+        }
+        return strategy.solve(start);
+    }
+
+    /**
+     * Solves any puzzle with a BFS
+     */
+    private static class BreadthFirst implements SolverStrategy {
+        @Override
+        public String getName() {
+            return "bfs";
+        }
+
+        @Override
+        public int getPriority() {
+            return Integer.MIN_VALUE;
+        }
+
+        @Override
+        public boolean supports(Configuration start) {
+            return true;
+        }
+
+        @Override
+        public Solution solve(Configuration start) {
+            return search(new Solver(), start);
+        }
+
+        /**
+         * @param solver solver to search with
+         * @param start Starting configuration
+         * @return the path the BFS found and the configs it counted
+         */
+        private static Solution search(Solver solver, Configuration start) {
+            List<Configuration> path = solver.doBFS(start);
+            return new Solution(path, solver.getTotalConfigs(),
+                    solver.getUniqueConfigs(), "bfs");
+        }
+    }
+}
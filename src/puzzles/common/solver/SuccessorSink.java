@@ -0,0 +1,13 @@
+package puzzles.common.solver;
+
+/**
+ * Receives the successors of a configuration one at a time as they are
+ * generated, so the configuration does not have to collect them first.
+ */
+@FunctionalInterface
+public interface SuccessorSink {
+    /**
+     * @param successor next successor of the configuration
+     */
+    void accept(Configuration successor);
+}
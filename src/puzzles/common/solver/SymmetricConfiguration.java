@@ -0,0 +1,15 @@
+package puzzles.common.solver;
+
+/**
+ * Configuration of a puzzle whose board can be reflected or rotated
+ * without changing how far it is from the goal. Every configuration maps
+ * to one canonical configuration shared by all of its reflections and
+ * rotations, so a search only has to visit one of them.
+ */
+public interface SymmetricConfiguration extends Configuration {
+    /**
+     * @return the configuration shared by every reflection and rotation of
+     * the current configuration, which may be the current configuration
+     */
+    Configuration canonical();
+}
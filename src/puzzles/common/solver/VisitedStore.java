@@ -0,0 +1,37 @@
+package puzzles.common.solver;
+
+/**
+ * Stores every configuration a search engine has already seen along with
+ * the configuration it was reached from, so that the path can be rebuilt
+ * once the goal is found.
+ */
+public interface VisitedStore {
+    /**
+     * Records a configuration as visited if it has not been seen yet
+     *
+     * @param config configuration that was reached
+     * @param parent configuration it was reached from, the starting
+     *               configuration is its own parent
+     * @return true if the configuration was not visited before and has been
+     * added, false if it was already visited
+     */
+    boolean add(Configuration config, Configuration parent);
+
+    /**
+     * @param config configuration to check
+     * @return true if the configuration has been visited, false otherwise
+     */
+    boolean contains(Configuration config);
+
+    /**
+     * @param config a visited configuration
+     * @return the configuration it was reached from, or null if it has
+     * not been visited
+     */
+    Configuration getParent(Configuration config);
+
+    /**
+     * @return number of visited configurations
+     */
+    int size();
+}
@@ -9,16 +9,17 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.stage.FileChooser;
+import puzzles.common.HoppersPuzzle;
 import puzzles.common.Observer;
+import puzzles.common.PuzzleLoader;
 import puzzles.hoppers.model.HoppersClientData;
 import puzzles.hoppers.model.HoppersModel;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -138,20 +139,10 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, Ho
 
         try {
             //Read the file specified from input
-            BufferedReader in = new BufferedReader(
-                    new FileReader(filename));
-            //Get dimensions of the board and create it
-            String[] nextLine = in.readLine().split(" ");
-            int numRows = Integer.parseInt(nextLine[0]);
-            int numCols = Integer.parseInt(nextLine[1]);
-            String[][] board = new String[numRows][numCols];
-            //Sets up all of the frogs and spaces on the board
-            for (int i = 0; i < numRows; i++) {
-                nextLine = in.readLine().split(" ");
-                for (int j = 0; j < nextLine.length; j++) {
-                    board[i][j] = nextLine[j];
-                }
-            }
+            HoppersPuzzle puzzle = PuzzleLoader.loadHoppers(filename);
+            int numRows = puzzle.getNumRows();
+            int numCols = puzzle.getNumCols();
+            String[][] board = puzzle.getBoard();
 
             this.rows = numRows;
             this.cols = numCols;
@@ -226,13 +217,18 @@ public class HoppersGUI extends Application implements Observer<HoppersModel, Ho
      * Updates the UI. The label at the top of the gridPane changes based
      * on the message given with hoppersClientData. The images on the buttons
      * in the center of the gridPane change based on the changes done to
-     * the board.
+     * the board. Updates that come from the thread searching for a hint
+     * are passed on to the JavaFX application thread.
      *
      * @param hoppersModel the model that has changed
      * @param hoppersClientData gives a message to display in the label.
      */
     @Override
     public void update(HoppersModel hoppersModel, HoppersClientData hoppersClientData) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> update(hoppersModel, hoppersClientData));
+            return;
+        }
         this.board = this.model.getCurrentConfig().getBoard();
         this.rows = this.model.getCurrentConfig().getNumRows();
         this.cols = this.model.getCurrentConfig().getNumCols();
@@ -0,0 +1,387 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SuccessorSink;
+import puzzles.common.solver.SymmetricConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Single configuration of the hoppers puzzle stored as bitboards. Each
+ * lily pad of the shape is one bit, the green frogs and the red frogs are
+ * each kept in two longs, so a board of up to 128 lily pads is four longs.
+ * Successors come from the jump tables of the shape and the goal check is
+ * a comparison of the masks, where HoppersConfig copies and compares
+ * strings. It solves the same puzzles with the same moves in the same
+ * order, and converts to and from HoppersConfig for the views. Pruning can
+ * be turned on to leave out successors that provably can not reach the
+ * goal, and an endgame database can be attached so boards it holds count
+ * as reached.
+ */
+public class HoppersBitConfig implements SymmetricConfiguration {
+    private final String FROG_GREEN = "G";
+    private final String FROG_RED = "R";
+    private final String SPACE_EMPTY = ".";
+    private final String SPACE_INVALID = "*";
+
+    private final HoppersShape shape;
+
+    /** green frogs on lily pads 0 to 63 and 64 to 127 */
+    private final long green0;
+    private final long green1;
+
+    /** red frogs on lily pads 0 to 63 and 64 to 127 */
+    private final long red0;
+    private final long red1;
+
+    /** true if successors that can not reach the goal are left out */
+    private final boolean pruning;
+
+    /** boards known to reach the goal, null if there is none */
+    private final HoppersEndgame endgame;
+
+    private HoppersBitConfig(HoppersShape shape, long green0, long green1,
+                             long red0, long red1, boolean pruning,
+                             HoppersEndgame endgame) {
+        this.shape = shape;
+        this.green0 = green0;
+        this.green1 = green1;
+        this.red0 = red0;
+        this.red1 = red1;
+        this.pruning = pruning;
+        this.endgame = endgame;
+    }
+
+    /**
+     * Makes a bitboard configuration of a board on the given shape
+     *
+     * @param shape shape of the board
+     * @param board 2d array of the board
+     */
+    public HoppersBitConfig(HoppersShape shape, String[][] board) {
+        this.shape = shape;
+        long[] green = new long[2];
+        long[] red = new long[2];
+        for (int cell = 0; cell < shape.getNumCells(); cell++) {
+            String space = board[shape.rowOf(cell)][shape.colOf(cell)];
+            if (space.equals(this.FROG_GREEN)) {
+                green[cell >>> 6] |= 1L << cell;
+            }
+            else if (space.equals(this.FROG_RED)) {
+                red[cell >>> 6] |= 1L << cell;
+            }
+        }
+        this.green0 = green[0];
+        this.green1 = green[1];
+        this.red0 = red[0];
+        this.red1 = red[1];
+        this.pruning = false;
+        this.endgame = null;
+    }
+
+    /**
+     * Makes a bitboard configuration of the same board as a HoppersConfig
+     *
+     * @param config configuration to convert
+     */
+    public HoppersBitConfig(HoppersConfig config) {
+        this(new HoppersShape(config.getNumRows(), config.getNumCols(),
+                config.getBoard()), config.getBoard());
+    }
+
+    /**
+     * @param pruning true to leave out successors that provably can not
+     *                reach the goal
+     * @return the same board, with pruning turned on or off for it and
+     * every successor
+     */
+    public HoppersBitConfig withPruning(boolean pruning) {
+        return new HoppersBitConfig(shape, green0, green1, red0, red1, pruning,
+                endgame);
+    }
+
+    /**
+     * @param endgame database of boards known to reach the goal, null for
+     *                none
+     * @return the same board, where it and every successor counts as a
+     * goal once it is in the database
+     */
+    public HoppersBitConfig withEndgame(HoppersEndgame endgame) {
+        return new HoppersBitConfig(shape, green0, green1, red0, red1, pruning,
+                endgame);
+    }
+
+    /**
+     * @return true if the board provably can not reach the goal, false if
+     * it might
+     */
+    public boolean isDead() {
+        return shape.isDead(green0, green1, red0, red1);
+    }
+
+    /**
+     * @return shape of the board
+     */
+    public HoppersShape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return 2d array of the board, in the format of HoppersConfig
+     */
+    public String[][] getBoard() {
+        String[][] board = new String[shape.getNumRows()][shape.getNumCols()];
+        for (int row = 0; row < shape.getNumRows(); row++) {
+            for (int col = 0; col < shape.getNumCols(); col++) {
+                int cell = shape.cellAt(row, col);
+                if (cell < 0) {
+                    board[row][col] = this.SPACE_INVALID;
+                }
+                else if (has(green0, green1, cell)) {
+                    board[row][col] = this.FROG_GREEN;
+                }
+                else if (has(red0, red1, cell)) {
+                    board[row][col] = this.FROG_RED;
+                }
+                else {
+                    board[row][col] = this.SPACE_EMPTY;
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * @return the same board as a HoppersConfig
+     */
+    public HoppersConfig toConfig() {
+        return new HoppersConfig(shape.getNumRows(), shape.getNumCols(),
+                getBoard());
+    }
+
+    /**
+     * @return number of green frogs on the board
+     */
+    public int countGreen() {
+        return Long.bitCount(green0) + Long.bitCount(green1);
+    }
+
+    /**
+     * @return an ArrayList of all possible successor configurations for
+     * the current configuration
+     */
+    @Override
+    public Collection<Configuration> getSuccessors() {
+        Collection<Configuration> successors = new ArrayList<>();
+        forEachSuccessor(successors::add);
+        return successors;
+    }
+
+    /**
+     * Hands each successor to the sink as soon as its jump is found,
+     * without collecting them
+     *
+     * @param sink receives each successor
+     */
+    @Override
+    public void forEachSuccessor(SuccessorSink sink) {
+        addSuccessors(sink, red0 | green0, 0);
+        addSuccessors(sink, red1 | green1, 64);
+    }
+
+    /**
+     * Finds the jumps of every frog in one word of the board
+     *
+     * @param sink receives each successor
+     * @param frogs frogs in the word
+     * @param base number of the first lily pad in the word
+     */
+    private void addSuccessors(SuccessorSink sink, long frogs, int base) {
+        long occupied0 = green0 | red0;
+        long occupied1 = green1 | red1;
+        while (frogs != 0) {
+            int cell = base + Long.numberOfTrailingZeros(frogs);
+            frogs &= frogs - 1;
+            boolean red = has(red0, red1, cell);
+            int[] over = shape.jumpsOver(cell);
+            int[] to = shape.jumpsTo(cell);
+            for (int j = 0; j < over.length; j++) {
+                if (!has(green0, green1, over[j]) ||
+                        has(occupied0, occupied1, to[j])) {
+                    continue;
+                }
+                long moved0 = bit0(cell) | bit0(to[j]);
+                long moved1 = bit1(cell) | bit1(to[j]);
+                long newGreen0 = green0 ^ bit0(over[j]);
+                long newGreen1 = green1 ^ bit1(over[j]);
+                long newRed0 = red0;
+                long newRed1 = red1;
+                if (red) {
+                    newRed0 ^= moved0;
+                    newRed1 ^= moved1;
+                }
+                else {
+                    newGreen0 ^= moved0;
+                    newGreen1 ^= moved1;
+                }
+                if (!pruning ||
+                        !shape.isDead(newGreen0, newGreen1, newRed0, newRed1)) {
+                    sink.accept(new HoppersBitConfig(shape, newGreen0,
+                            newGreen1, newRed0, newRed1, pruning, endgame));
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the frogs by every symmetry of the shape and keeps the board
+     * whose masks are the smallest, comparing the green then the red masks
+     * as unsigned numbers.
+     *
+     * @return the same configuration for every board that is a reflection
+     * or rotation of this one
+     */
+    @Override
+    public Configuration canonical() {
+        int[][] symmetries = shape.symmetries();
+        long[] best = {green0, green1, red0, red1};
+        long[] moved = new long[4];
+        boolean changed = false;
+        for (int s = 1; s < symmetries.length; s++) {
+            Arrays.fill(moved, 0);
+            permute(symmetries[s], green0, 0, moved, 0);
+            permute(symmetries[s], green1, 64, moved, 0);
+            permute(symmetries[s], red0, 0, moved, 2);
+            permute(symmetries[s], red1, 64, moved, 2);
+            if (isSmaller(moved, best)) {
+                System.arraycopy(moved, 0, best, 0, 4);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        return new HoppersBitConfig(shape, best[0], best[1], best[2], best[3],
+                pruning, endgame);
+    }
+
+    /**
+     * Moves the frogs of one word to the lily pads given by the mapping
+     *
+     * @param mapping lily pad each pad is moved to
+     * @param frogs frogs in the word
+     * @param base number of the first lily pad in the word
+     * @param masks masks to set the moved frogs in
+     * @param offset index of the first word of the masks to set
+     */
+    private static void permute(int[] mapping, long frogs, int base,
+                                long[] masks, int offset) {
+        while (frogs != 0) {
+            int cell = mapping[base + Long.numberOfTrailingZeros(frogs)];
+            frogs &= frogs - 1;
+            masks[offset + (cell >>> 6)] |= 1L << cell;
+        }
+    }
+
+    /**
+     * @return true if the first masks are smaller, comparing the high
+     * green word, low green word, high red word then low red word
+     */
+    private static boolean isSmaller(long[] masks, long[] other) {
+        int[] order = {1, 0, 3, 2};
+        for (int i: order) {
+            int compared = Long.compareUnsigned(masks[i], other[i]);
+            if (compared != 0) {
+                return compared < 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the board is solved, or if it is in the attached
+     * endgame database so the rest of the path is known. Otherwise,
+     * returns false.
+     */
+    @Override
+    public boolean isGoal() {
+        return isSolved() || (endgame != null && endgame.contains(this));
+    }
+
+    /**
+     * @return true if there is a red frog and no green frogs on the board.
+     * Otherwise, returns false.
+     */
+    public boolean isSolved() {
+        return (green0 | green1) == 0 && (red0 | red1) != 0;
+    }
+
+    /**
+     * @return the green then the red frogs, two words each
+     */
+    long[] masks() {
+        return new long[]{green0, green1, red0, red1};
+    }
+
+    /**
+     * @return true if the mask has the bit of the lily pad
+     */
+    private static boolean has(long mask0, long mask1, int cell) {
+        return ((cell < 64 ? mask0 : mask1) & (1L << cell)) != 0;
+    }
+
+    /**
+     * @return bit of the lily pad in the first word, 0 if it is in the second
+     */
+    private static long bit0(int cell) {
+        return cell < 64 ? 1L << cell : 0;
+    }
+
+    /**
+     * @return bit of the lily pad in the second word, 0 if it is in the first
+     */
+    private static long bit1(int cell) {
+        return cell < 64 ? 0 : 1L << cell;
+    }
+
+    /**
+     * Compares current board config to the given board config
+     *
+     * @param other other config to compare to
+     * @return true if both board configurations are equal, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof HoppersBitConfig) {
+            HoppersBitConfig h = (HoppersBitConfig) other;
+            result = this.green0 == h.green0 && this.green1 == h.green1 &&
+                    this.red0 == h.red0 && this.red1 == h.red1 &&
+                    (this.shape == h.shape || this.shape.equals(h.shape));
+        }
+        return result;
+    }
+
+    /**
+     * @return integer representing the hashcode of the frog masks
+     */
+    @Override
+    public int hashCode() {
+        long hash = green0 * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ green1) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ red0) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ red1) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return String that represents the current board
+     * configuration in a grid format, the same as HoppersConfig
+     */
+    @Override
+    public String toString() {
+        return toConfig().toString();
+    }
+}
@@ -1,15 +1,23 @@
 package puzzles.hoppers.model;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SuccessorSink;
+import puzzles.common.solver.SymmetricConfiguration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 
 /**
- * Single configuration of the hoppers puzzle
+ * Single configuration of the hoppers puzzle. Along with the board it keeps
+ * a 64 bit Zobrist hash, the XOR of a random key for every frog and the
+ * space it is on. A jump only changes three spaces, so the hash of each
+ * successor is found with three XORs instead of hashing the whole board,
+ * and boards with different hashes are known to differ without comparing
+ * them. The shape of the board, which finding the symmetric board needs,
+ * is worked out once and shared with every successor.
  */
-public class HoppersConfig implements Configuration {
+public class HoppersConfig implements SymmetricConfiguration {
     private final String FROG_GREEN = "G";
     private final String FROG_RED = "R";
     private final String SPACE_EMPTY = ".";
@@ -19,11 +27,99 @@ public class HoppersConfig implements Configuration {
     private int numCols;
     private String[][] board;
 
+    /** Zobrist hash of the board */
+    private long zobrist;
+
+    /** shape of the board, null until it is first needed */
+    private HoppersShape shape;
+
+    /** true if the board has too many lily pads for a shape */
+    private boolean noShape;
 
     public HoppersConfig (int rows, int col, String[][] board) {
         this.numRows = rows;
         this.numCols = col;
+        this.board = copyBoard(board, rows, col);
+        this.zobrist = hashBoard();
+    }
+
+    /**
+     * Makes a successor configuration whose hash is already known and
+     * whose board has the same shape as its parent
+     */
+    private HoppersConfig(int rows, int cols, String[][] board, long zobrist,
+                          HoppersShape shape, boolean noShape) {
+        this.numRows = rows;
+        this.numCols = cols;
         this.board = board;
+        this.zobrist = zobrist;
+        this.shape = shape;
+        this.noShape = noShape;
+    }
+
+    /**
+     * @return Zobrist hash of the whole board
+     */
+    private long hashBoard() {
+        long hash = 0;
+        for (int row = 0; row < this.numRows; row++) {
+            for (int col = 0; col < this.numCols; col++) {
+                hash ^= zobristKey(row, col, board[row][col]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Random key of a space and what is on it, made by mixing the bits of
+     * the row, column and frog with the SplitMix64 finalizer. Empty spaces
+     * and water have no key.
+     *
+     * @param row row of the space
+     * @param col column of the space
+     * @param space what is on the space
+     * @return key of the frog on the space, or 0 if there is no frog
+     */
+    private long zobristKey(int row, int col, String space) {
+        int piece;
+        if (space.equals(this.FROG_GREEN)) {
+            piece = 1;
+        }
+        else if (space.equals(this.FROG_RED)) {
+            piece = 2;
+        }
+        else {
+            return 0;
+        }
+        long key = ((long) row << 32 | (long) col << 2 | piece) +
+                0x9E3779B97F4A7C15L;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    /**
+     * Makes the configuration after a frog jumps, updating the hash for the
+     * three spaces that change
+     *
+     * @param currRow int row of the frog that will move
+     * @param currCol int col of the frog that will move
+     * @param newRow int row of where the frog will move
+     * @param newCol int col of where the frog will move
+     * @return configuration after the jump
+     */
+    private HoppersConfig successor(int currRow, int currCol,
+                                    int newRow, int newCol) {
+        String frog = board[currRow][currCol];
+        int overRow = currRow + (newRow-currRow)/2;
+        int overCol = currCol + (newCol-currCol)/2;
+        long hash = this.zobrist ^
+                zobristKey(currRow, currCol, frog) ^
+                zobristKey(overRow, overCol, board[overRow][overCol]) ^
+                zobristKey(newRow, newCol, frog);
+        return new HoppersConfig(this.numRows, this.numCols,
+                boardSuccessor(currRow, currCol, newRow, newCol), hash,
+                this.shape, this.noShape);
     }
 
     /**
@@ -80,12 +176,7 @@ public class HoppersConfig implements Configuration {
     public String[][] boardSuccessor(int currRow, int currCol,
                                       int newRow, int newCol) {
         //Copies current board
-        String[][] newBoard = new String[this.numRows][this.numCols];
-        for (int row = 0; row < this.numRows; row++) {
-            for (int col = 0; col < this.numCols; col++) {
-                newBoard[row][col] = this.board[row][col];
-            }
-        }
+        String[][] newBoard = copyBoard(this.board, this.numRows, this.numCols);
 
         //Change spaces based on move frog made
         newBoard[newRow][newCol] = newBoard[currRow][currCol];
@@ -113,14 +204,39 @@ public class HoppersConfig implements Configuration {
      * @param board 2d array of new board
      */
     public void setBoard(String[][] board) {
-        this.board = board;
+        this.board = copyBoard(board, this.numRows, this.numCols);
+        this.zobrist = hashBoard();
+        this.shape = null;
+        this.noShape = false;
     }
 
     /**
-     * @return current 2d board array
+     * @return copy of the current 2d board array, since the hash of the
+     * configuration is kept up to date with the board instead of being
+     * worked out from it when asked for
      */
     public String[][] getBoard() {
-        return this.board;
+        return copyBoard(this.board, this.numRows, this.numCols);
+    }
+
+    /**
+     * @param row row of the board
+     * @param col column of the board
+     * @return what is on the board at the row and column
+     */
+    String getSpace(int row, int col) {
+        return this.board[row][col];
+    }
+
+    /**
+     * @return copy of the first rows and columns of the board
+     */
+    private static String[][] copyBoard(String[][] board, int rows, int cols) {
+        String[][] copy = new String[rows][];
+        for (int row = 0; row < rows; row++) {
+            copy[row] = Arrays.copyOf(board[row], cols);
+        }
+        return copy;
     }
 
     /**
@@ -146,7 +262,10 @@ public class HoppersConfig implements Configuration {
     public void setGame(int rows, int cols, String[][] board) {
         this.numRows = rows;
         this.numCols = cols;
-        this.board = board;
+        this.board = copyBoard(board, rows, cols);
+        this.zobrist = hashBoard();
+        this.shape = null;
+        this.noShape = false;
     }
 
     /**
@@ -156,35 +275,38 @@ public class HoppersConfig implements Configuration {
     @Override
     public Collection<Configuration> getSuccessors() {
         Collection<Configuration> successors = new ArrayList<>();
+        forEachSuccessor(successors::add);
+        return successors;
+    }
 
+    /**
+     * Hands each successor to the sink as soon as its jump is found,
+     * without collecting them
+     *
+     * @param sink receives each successor
+     */
+    @Override
+    public void forEachSuccessor(SuccessorSink sink) {
         for (int row = 0; row < this.numRows; row++) {
             for (int col = 0; col < this.numCols; col++) {
                 if (board[row][col].equals(this.FROG_RED) ||
                     board[row][col].equals(this.FROG_GREEN)) {
                     //Move Up-Left
                     if (validMove(row, col, row-2, col-2)) {
-                        successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                boardSuccessor(
-                                        row, col, row-2, col-2)));
+                        sink.accept(successor(row, col, row-2, col-2));
                     }
                     //Move Up-Right
                     if (validMove(row, col, row-2, col+2)) {
-                        successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                boardSuccessor(
-                                        row, col, row-2, col+2)));
+                        sink.accept(successor(row, col, row-2, col+2));
                     }
                     //Move Down-Right
                     if (validMove(row, col, row+2, col+2)) {
-                        successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                boardSuccessor(
-                                        row, col, row+2, col+2)));
+                        sink.accept(successor(row, col, row+2, col+2));
                     }
 
                     //Move Down-Left
                     if (validMove(row, col, row+2, col-2)) {
-                        successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                boardSuccessor(
-                                        row, col, row+2, col-2)));
+                        sink.accept(successor(row, col, row+2, col-2));
                     }
 
 
@@ -192,30 +314,63 @@ public class HoppersConfig implements Configuration {
                     if (row%2 == 0 && col%2 == 0) {
                         //Move Up
                         if (validMove(row, col, row-4, col)) {
-                            successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                    boardSuccessor(row, col, row-4, col)));
+                            sink.accept(successor(row, col, row-4, col));
                         }
                         //Move Right
                         if (validMove(row, col, row, col+4)) {
-                            successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                    boardSuccessor(row, col, row, col+4)));
+                            sink.accept(successor(row, col, row, col+4));
                         }
                         //Move Down
                         if (validMove(row, col, row+4, col)) {
-                            successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                    boardSuccessor(row, col, row+4, col)));
+                            sink.accept(successor(row, col, row+4, col));
                         }
                         //Move Left
                         if (validMove(row, col, row, col-4)) {
-                            successors.add(new HoppersConfig(this.numRows, this.numCols,
-                                    boardSuccessor(row, col, row, col-4)));
+                            sink.accept(successor(row, col, row, col-4));
                         }
                     }
                 }
             }
         }
+    }
 
-        return successors;
+    /**
+     * Finds the smallest reflection or rotation of the board, in the same
+     * way as HoppersBitConfig. It is returned as a bitboard, which is
+     * quicker to hash and compare than the board would be.
+     *
+     * @return the same bitboard configuration for every board that is a
+     * reflection or rotation of this one, or this configuration if the
+     * board has too many lily pads for bitboards
+     */
+    @Override
+    public Configuration canonical() {
+        HoppersShape shape = shape();
+        if (shape == null) {
+            //Too many lily pads to find the symmetries of
+            return this;
+        }
+        return new HoppersBitConfig(shape, this.board).canonical();
+    }
+
+    /**
+     * Works out the shape of the board the first time it is needed. The
+     * successors made after that share it, so it is only worked out once
+     * per search.
+     *
+     * @return shape of the board, or null if it has too many lily pads
+     */
+    private HoppersShape shape() {
+        if (this.shape == null && !this.noShape) {
+            try {
+                this.shape = new HoppersShape(this.numRows, this.numCols,
+                        this.board);
+            }
+            catch (IllegalArgumentException e) {
+                this.noShape = true;
+            }
+        }
+        return this.shape;
     }
 
     /**
@@ -251,17 +406,18 @@ public class HoppersConfig implements Configuration {
         boolean result = false;
         if (other instanceof HoppersConfig) {
             HoppersConfig h = (HoppersConfig) other;
-            result = Arrays.deepEquals(this.board, h.board);
+            result = this.zobrist == h.zobrist &&
+                    Arrays.deepEquals(this.board, h.board);
         }
         return result;
     }
 
     /**
-     * @return integer representing the hashcode of the 2d board array
+     * @return integer representing the Zobrist hash of the board
      */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(this.board);
+        return (int) (this.zobrist ^ (this.zobrist >>> 32));
     }
 
     /**
@@ -0,0 +1,427 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Configuration;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Endgame database of one board shape. It holds every placement of one red
+ * frog and at most a few green frogs that can still reach the goal, found
+ * by jumping backwards from every solved board (retrograde analysis). Every
+ * jump takes exactly one green frog, so a placement in the database is
+ * always as many jumps from the goal as it has green frogs. Placements are
+ * packed into longs, one for each set of boards that are reflections or
+ * rotations of each other, and kept sorted in a file that is memory mapped
+ * when it is loaded, so looking a board up is a binary search of the file.
+ */
+public class HoppersEndgame {
+    /** most green frogs a placement in a database can have */
+    public static final int MAX_GREENS = 7;
+
+    /** directory databases are looked for in, unless the
+     * hoppers.endgame.dir property names another one */
+    public static final String DEFAULT_DIRECTORY = "data/hoppers/endgame";
+
+    /** distance of a board that is not in the database */
+    public static final int NOT_FOUND = -1;
+
+    /** first int of every database file, "HOPE" */
+    private static final int MAGIC = 0x484F5045;
+    private static final int VERSION = 1;
+
+    /** bits used for each lily pad of a packed placement */
+    private static final int CELL_BITS = 7;
+
+    /** first bit of the number of green frogs of a packed placement */
+    private static final int COUNT_SHIFT = 56;
+
+    private final HoppersShape shape;
+    private final int maxGreens;
+
+    /** packed placements in ascending order */
+    private final LongBuffer placements;
+
+    private HoppersEndgame(HoppersShape shape, int maxGreens,
+                           LongBuffer placements) {
+        this.shape = shape;
+        this.maxGreens = maxGreens;
+        this.placements = placements;
+    }
+
+    /**
+     * Finds every placement of one red frog and at most maxGreens green
+     * frogs that can reach the goal and writes them to a file. Starting
+     * from the red frog alone on each lily pad, every jump is undone in
+     * every way it could have been made, adding one green frog each time.
+     *
+     * @param shape shape of the board
+     * @param maxGreens most green frogs a placement may have
+     * @param file file to write the database to
+     * @return number of placements written
+     * @throws IOException if the file can not be written
+     */
+    public static long generate(HoppersShape shape, int maxGreens, Path file)
+            throws IOException {
+        if (maxGreens < 0 || maxGreens > MAX_GREENS) {
+            throw new IllegalArgumentException(
+                    "Green frogs must be between 0 and " + MAX_GREENS);
+        }
+        int[][] symmetries = shape.symmetries();
+        int[] cells = new int[maxGreens + 1];
+
+        //Solved boards, one red frog and nothing else
+        long[] layer = new long[shape.getNumCells()];
+        for (int cell = 0; cell < layer.length; cell++) {
+            cells[0] = cell;
+            layer[cell] = canonical(symmetries, cells, 0);
+        }
+        layer = sortUnique(layer, layer.length);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp)))) {
+            writeHeader(out, shape, maxGreens);
+            for (int greens = 0; ; greens++) {
+                //Layers have more green frogs, and so larger packed
+                //placements, than the ones before, so the file stays sorted
+                for (long placement: layer) {
+                    out.writeLong(placement);
+                }
+                written += layer.length;
+                if (greens == maxGreens) {
+                    break;
+                }
+                layer = undoJumps(shape, layer, greens, cells);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return written;
+    }
+
+    /**
+     * Undoes every jump that could have led to the placements of a layer
+     *
+     * @param shape shape of the board
+     * @param layer packed placements with the given number of green frogs
+     * @param greens number of green frogs of the layer
+     * @param cells scratch array with room for a red and maxGreens greens
+     * @return sorted packed placements with one more green frog
+     */
+    private static long[] undoJumps(HoppersShape shape, long[] layer,
+                                    int greens, int[] cells) {
+        int[][] symmetries = shape.symmetries();
+        long[] found = new long[Math.max(layer.length * 4, 16)];
+        int size = 0;
+        boolean[] occupied = new boolean[shape.getNumCells()];
+        for (long placement: layer) {
+            unpack(placement, cells);
+            for (int i = 0; i <= greens; i++) {
+                occupied[cells[i]] = true;
+            }
+            //A frog now on a pad came from the far side of a green frog.
+            //Jumps are lines, so the jumps from a pad are also the jumps
+            //that land on it
+            for (int frog = 0; frog <= greens; frog++) {
+                int cell = cells[frog];
+                int[] over = shape.jumpsOver(cell);
+                int[] from = shape.jumpsTo(cell);
+                for (int j = 0; j < over.length; j++) {
+                    if (occupied[over[j]] || occupied[from[j]]) {
+                        continue;
+                    }
+                    cells[frog] = from[j];
+                    cells[greens + 1] = over[j];
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = canonical(symmetries, cells, greens + 1);
+                    cells[frog] = cell;
+                }
+            }
+            for (int i = 0; i <= greens; i++) {
+                occupied[cells[i]] = false;
+            }
+        }
+        return sortUnique(found, size);
+    }
+
+    /**
+     * @return the first size values sorted, without repeats
+     */
+    private static long[] sortUnique(long[] values, int size) {
+        Arrays.sort(values, 0, size);
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (unique == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, unique);
+    }
+
+    /**
+     * Writes what the database was built for at the start of the file
+     */
+    private static void writeHeader(DataOutputStream out, HoppersShape shape,
+                                    int maxGreens) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(shape.getNumRows());
+        out.writeInt(shape.getNumCols());
+        out.writeInt(maxGreens);
+        out.writeInt(shape.getNumCells());
+        for (int cell = 0; cell < shape.getNumCells(); cell++) {
+            out.writeInt(shape.rowOf(cell) * shape.getNumCols() + shape.colOf(cell));
+        }
+        //Pad the header to a whole number of longs
+        if (shape.getNumCells() % 2 == 1) {
+            out.writeInt(0);
+        }
+    }
+
+    /**
+     * Memory maps a database file built for the given shape
+     *
+     * @param shape shape of the board
+     * @param file database file
+     * @return the loaded database
+     * @throws IOException if the file can not be read, or was not built for
+     * the shape
+     */
+    public static HoppersEndgame load(HoppersShape shape, Path file)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < 24 || mapped.getInt() != MAGIC ||
+                    mapped.getInt() != VERSION) {
+                throw new IOException(file + " is not an endgame database");
+            }
+            boolean matches = mapped.getInt() == shape.getNumRows() &
+                    mapped.getInt() == shape.getNumCols();
+            int maxGreens = mapped.getInt();
+            matches &= mapped.getInt() == shape.getNumCells();
+            for (int cell = 0; cell < shape.getNumCells() && matches; cell++) {
+                matches = mapped.getInt() == shape.rowOf(cell) *
+                        shape.getNumCols() + shape.colOf(cell);
+            }
+            if (!matches) {
+                throw new IOException(file + " was built for another board");
+            }
+            if (shape.getNumCells() % 2 == 1) {
+                mapped.getInt();
+            }
+            ByteBuffer body = mapped.slice();
+            return new HoppersEndgame(shape, maxGreens, body.asLongBuffer());
+        }
+    }
+
+    /**
+     * Loads the database of the shape from the endgame directory, if one
+     * has been generated
+     *
+     * @param shape shape of the board
+     * @return the loaded database, or null if there is none that can be read
+     */
+    public static HoppersEndgame find(HoppersShape shape) {
+        Path file = Path.of(System.getProperty("hoppers.endgame.dir",
+                DEFAULT_DIRECTORY)).resolve(fileName(shape));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return load(shape, file);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param shape shape of the board
+     * @return name of the database file of the shape, from its size and
+     * the layout of its lily pads
+     */
+    public static String fileName(HoppersShape shape) {
+        int layout = 1;
+        for (int cell = 0; cell < shape.getNumCells(); cell++) {
+            layout = 31 * layout + shape.rowOf(cell) * shape.getNumCols() +
+                    shape.colOf(cell);
+        }
+        return "hoppers-" + shape.getNumRows() + "x" + shape.getNumCols() +
+                "-" + Integer.toHexString(layout) + ".endgame";
+    }
+
+    /**
+     * @param config board to look up
+     * @return true if the board can reach the goal and is in the database
+     */
+    public boolean contains(HoppersBitConfig config) {
+        return distance(config) != NOT_FOUND;
+    }
+
+    /**
+     * @param config board to look up
+     * @return number of jumps from the board to the goal, or NOT_FOUND if
+     * the board is not in the database
+     */
+    public int distance(HoppersBitConfig config) {
+        if (!shape.equals(config.getShape())) {
+            return NOT_FOUND;
+        }
+        long[] masks = config.masks();
+        long placement = pack(masks);
+        if (placement < 0 || !contains(placement)) {
+            return NOT_FOUND;
+        }
+        return (int) (placement >>> COUNT_SHIFT);
+    }
+
+    /**
+     * @param config board in the database
+     * @return the board after the next jump towards the goal, or null if
+     * the board is solved or not in the database
+     */
+    public HoppersBitConfig next(HoppersBitConfig config) {
+        if (config.isSolved() || !contains(config)) {
+            return null;
+        }
+        for (Configuration successor: config.getSuccessors()) {
+            HoppersBitConfig next = (HoppersBitConfig) successor;
+            if (next.isSolved() || contains(next)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param config board in the database
+     * @return path from the board to the goal, starting with the board, or
+     * an empty list if the board is not in the database
+     */
+    public List<Configuration> finish(HoppersBitConfig config) {
+        List<Configuration> path = new ArrayList<>();
+        if (config.isSolved() || contains(config)) {
+            path.add(config);
+            for (HoppersBitConfig next = next(config); next != null;
+                 next = next(next)) {
+                path.add(next);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return most green frogs a placement in the database has
+     */
+    public int getMaxGreens() {
+        return maxGreens;
+    }
+
+    /**
+     * @return number of placements in the database
+     */
+    public int size() {
+        return placements.limit();
+    }
+
+    /**
+     * @return true if the packed placement is in the file
+     */
+    private boolean contains(long placement) {
+        int low = 0;
+        int high = placements.limit() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long value = placements.get(middle);
+            if (value < placement) {
+                low = middle + 1;
+            }
+            else if (value > placement) {
+                high = middle - 1;
+            }
+            else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Packs a board of one red frog and at most maxGreens green frogs the
+     * same way the database does
+     *
+     * @param masks green then red frogs, two words each
+     * @return the packed placement, or -1 if the board can not be in the
+     * database
+     */
+    private long pack(long[] masks) {
+        int greens = Long.bitCount(masks[0]) + Long.bitCount(masks[1]);
+        if (greens > maxGreens ||
+                Long.bitCount(masks[2]) + Long.bitCount(masks[3]) != 1) {
+            return -1;
+        }
+        int[] cells = new int[greens + 1];
+        cells[0] = masks[2] != 0 ? Long.numberOfTrailingZeros(masks[2]) :
+                64 + Long.numberOfTrailingZeros(masks[3]);
+        int i = 1;
+        for (int word = 0; word < 2; word++) {
+            long frogs = masks[word];
+            while (frogs != 0) {
+                cells[i++] = 64 * word + Long.numberOfTrailingZeros(frogs);
+                frogs &= frogs - 1;
+            }
+        }
+        return canonical(shape.symmetries(), cells, greens);
+    }
+
+    /**
+     * Packs a placement as moved by every symmetry and keeps the smallest
+     *
+     * @param symmetries lily pad each pad is moved to, for every symmetry
+     * @param cells red frog followed by the green frogs, left unchanged
+     * @param greens number of green frogs
+     * @return the smallest packed placement
+     */
+    private static long canonical(int[][] symmetries, int[] cells, int greens) {
+        long best = Long.MAX_VALUE;
+        int[] moved = new int[greens];
+        for (int[] mapping: symmetries) {
+            for (int i = 0; i < greens; i++) {
+                moved[i] = mapping[cells[i + 1]];
+            }
+            Arrays.sort(moved);
+            long placement = (long) greens << COUNT_SHIFT | mapping[cells[0]];
+            for (int i = 0; i < greens; i++) {
+                placement |= (long) moved[i] << (CELL_BITS * (i + 1));
+            }
+            best = Math.min(best, placement);
+        }
+        return best;
+    }
+
+    /**
+     * Unpacks a placement into the red frog followed by the green frogs
+     */
+    private static void unpack(long placement, int[] cells) {
+        int greens = (int) (placement >>> COUNT_SHIFT);
+        for (int i = 0; i <= greens; i++) {
+            cells[i] = (int) (placement >>> (CELL_BITS * i)) & ((1 << CELL_BITS) - 1);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package puzzles.hoppers.model;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for the hoppers puzzle. Every jump removes exactly one green
+ * frog, so the number of green frogs left is the number of moves left to
+ * the goal whenever the goal can be reached at all.
+ */
+public class HoppersHeuristic implements Heuristic<HoppersConfig> {
+    private final String FROG_GREEN = "G";
+    private final String FROG_RED = "R";
+
+    /**
+     * @param config configuration to estimate
+     * @return number of green frogs on the board, or UNREACHABLE if there
+     * is no red frog
+     */
+    @Override
+    public int estimate(HoppersConfig config) {
+        int greens = 0;
+        boolean hasRed = false;
+        for (int row = 0; row < config.getNumRows(); row++) {
+            for (int col = 0; col < config.getNumCols(); col++) {
+                if (config.getSpace(row, col).equals(this.FROG_GREEN)) {
+                    greens++;
+                }
+                else if (config.getSpace(row, col).equals(this.FROG_RED)) {
+                    hasRed = true;
+                }
+            }
+        }
+        return hasRed ? greens : UNREACHABLE;
+    }
+}
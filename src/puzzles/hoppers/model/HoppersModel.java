@@ -1,26 +1,66 @@
 package puzzles.hoppers.model;
 
+import puzzles.common.HoppersPuzzle;
 import puzzles.common.Observer;
+import puzzles.common.PuzzleLoader;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.DistanceTable;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
 import puzzles.common.solver.Solver;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Model of the hoppers game. Contains the configuration of the game and
- * all of the available commands. Notifies the view when a change is made
+ * all of the available commands. Notifies the view when a change is made.
+ * Hints are searched for in the background, so observers may be notified
+ * from a thread other than the one that called hint.
  */
 public class HoppersModel {
+    /** limits on the search for a hint */
+    private static final SearchBudget HINT_BUDGET =
+            SearchBudget.unlimited().withTime(Duration.ofSeconds(30));
+
+    /** runs the searches for hints, one at a time */
+    private static final ExecutorService HINT_EXECUTOR =
+            Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "hoppers-hint");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** limits on building the hint table of a loaded board */
+    private static final SearchBudget TABLE_BUDGET = SearchBudget.unlimited()
+            .withTime(Duration.ofSeconds(60)).withConfigs(5_000_000);
+
+    /** builds the hint tables, apart from the searches for hints */
+    private static final ExecutorService TABLE_EXECUTOR =
+            Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "hoppers-hint-table");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     /** the collection of observers of this model */
     private final List<Observer<HoppersModel, HoppersClientData>> observers = new LinkedList<>();
 
     /** the current configuration */
     private HoppersConfig currentConfig;
 
+    /** shape of the loaded board, null if it is too big for bitboards */
+    private HoppersShape shape;
+
+    /** endgame database of the shape, null if none has been generated */
+    private HoppersEndgame endgame;
+
     /** the name of the file that has the starting configuration */
     private String filename;
 
@@ -29,6 +69,22 @@ public class HoppersModel {
     private int selectedRow;
     private int selectedCol;
 
+    /** search for a hint that is still running, null if there is none */
+    private CompletableFuture<List<Configuration>> pendingHint;
+
+    /** configuration the pending hint is being searched for */
+    private Configuration pendingStart;
+
+    /** best next move for every board reachable from the loaded board,
+     * null until it has been built */
+    private DistanceTable hintTable;
+
+    /** build of the hint table that is still running, null if there is none */
+    private CompletableFuture<DistanceTable> pendingTable;
+
+    /** configuration the pending hint table is being built from */
+    private Configuration pendingTableStart;
+
     /**
      * Create a new instance of the model for the hoppers puzzle
      *
@@ -40,6 +96,9 @@ public class HoppersModel {
     public HoppersModel(String filename, int rows, int cols, String[][] board) {
         this.filename = filename;
         this.currentConfig = new HoppersConfig(rows, cols, board);
+        this.shape = makeShape(rows, cols, board);
+        this.endgame = this.shape == null ? null : HoppersEndgame.find(this.shape);
+        buildHintTable();
     }
 
     /**
@@ -62,24 +121,203 @@ public class HoppersModel {
     }
 
     /**
-     * If the current state of the puzzle is solvable, the puzzle
-     * advances to the next step in the solution with an indication that
-     * it was successful. Otherwise the puzzle remains in the same state
-     * and indicate there is no solution.
+     * Starts searching for the solution of the current state of the puzzle
+     * in the background and returns right away. If the puzzle is solvable,
+     * the puzzle advances to the next step in the solution with an
+     * indication that it was successful. Otherwise the puzzle remains in
+     * the same state and indicate there is no solution. Asking for a hint
+     * while one is being searched for keeps the search that is running.
+     * Once the hint table of the loaded board is built, hints are looked
+     * up in it instead and no search is run. Boards that provably can not
+     * be solved are reported right away, boards in the endgame database of
+     * the shape are answered from it, and a search stops at the first
+     * board it finds in the database.
      */
-    public void hint() {
+    public synchronized void hint() {
         if (this.currentConfig.isGoal()) {
             alertObservers(new HoppersClientData("Already solved!"));
+            return;
+        }
+        Configuration start = searchStart();
+        if (this.hintTable != null && this.hintTable.contains(start)) {
+            cancelHint();
+            applyHint(this.hintTable.next(start));
+            return;
+        }
+        if (start instanceof HoppersBitConfig && ((HoppersBitConfig) start).isDead()) {
+            cancelHint();
+            applyHint(null);
+            return;
+        }
+        if (this.endgame != null && this.endgame.contains((HoppersBitConfig) start)) {
+            cancelHint();
+            applyHint(this.endgame.next((HoppersBitConfig) start));
+            return;
+        }
+        if (this.pendingHint != null && start.equals(this.pendingStart)) {
+            alertObservers(new HoppersClientData("Still searching..."));
+            return;
+        }
+        cancelHint();
+
+        Configuration searchFrom = this.endgame == null ? start :
+                ((HoppersBitConfig) start).withEndgame(this.endgame);
+        CompletableFuture<List<Configuration>> search =
+                new Solver().solveAsync(searchFrom, HINT_BUDGET, HINT_EXECUTOR);
+        this.pendingHint = search;
+        this.pendingStart = start;
+        alertObservers(new HoppersClientData("Searching for hint..."));
+        search.whenComplete((solution, error) -> finishHint(search, solution, error));
+    }
+
+    /**
+     * Applies the result of a hint search, unless it was cancelled or the
+     * board has changed since it started
+     *
+     * @param search the search that finished
+     * @param solution path found, null if the search failed
+     * @param error why the search failed, null if it did not
+     */
+    private synchronized void finishHint(CompletableFuture<List<Configuration>> search,
+                                         List<Configuration> solution,
+                                         Throwable error) {
+        if (search != this.pendingHint) {
+            return;
+        }
+        this.pendingHint = null;
+        this.pendingStart = null;
+        if (error instanceof CompletionException) {
+            error = error.getCause();
+        }
+        if (error instanceof SearchAbortedException) {
+            alertObservers(new HoppersClientData(
+                    "No hint: " + error.getMessage()));
+        }
+        else if (error != null) {
+            alertObservers(new HoppersClientData(
+                    "Hint failed: " + error.getMessage()));
+        }
+        else {
+            applyHint(solution.isEmpty() ? null : solution.get(1));
+        }
+    }
+
+    /**
+     * Moves the puzzle to the next step of a solution
+     *
+     * @param next next step, null if there is no solution
+     */
+    private void applyHint(Configuration next) {
+        if (next == null) {
+            alertObservers(new HoppersClientData("No solution!"));
         }
         else {
-            Solver hopperSolver = new Solver();
-            List<Configuration> solution = hopperSolver.doBFS(this.currentConfig);
-            if (solution.isEmpty()) {
-                alertObservers(new HoppersClientData("No solution!"));
-            } else {
-                this.currentConfig = (HoppersConfig) solution.get(1);
-                alertObservers(new HoppersClientData("Next Step!"));
+            this.currentConfig = toHoppersConfig(next);
+            alertObservers(new HoppersClientData("Next Step!"));
+        }
+    }
+
+    /**
+     * @return a copy of the current board to search from, as a bitboard
+     * configuration that leaves out dead boards if the board fits in one
+     */
+    private Configuration searchStart() {
+        if (this.shape != null) {
+            return new HoppersBitConfig(this.shape, this.currentConfig.getBoard())
+                    .withPruning(true);
+        }
+        return new HoppersConfig(this.currentConfig.getNumRows(),
+                this.currentConfig.getNumCols(), this.currentConfig.getBoard());
+    }
+
+    /**
+     * Converts a step found by a search back to a HoppersConfig. The step
+     * is copied, so later moves do not change the hint table.
+     *
+     * @param step bitboard or string configuration of a board
+     * @return new HoppersConfig of the same board
+     */
+    private static HoppersConfig toHoppersConfig(Configuration step) {
+        if (step instanceof HoppersBitConfig) {
+            return ((HoppersBitConfig) step).toConfig();
+        }
+        HoppersConfig config = (HoppersConfig) step;
+        return new HoppersConfig(config.getNumRows(), config.getNumCols(),
+                config.getBoard());
+    }
+
+    /**
+     * @return shape of the board, or null if it has too many lily pads
+     * for bitboards
+     */
+    private static HoppersShape makeShape(int rows, int cols, String[][] board) {
+        try {
+            return new HoppersShape(rows, cols, board);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts building the hint table for the current board in the
+     * background, replacing the table of the previous board. The table of
+     * a board covers every board reachable from it, so it is kept when the
+     * current board is in it, as it is after a reset. A build for another
+     * board that is still running is cancelled, so it stops within a few
+     * expansions instead of holding up the new one.
+     */
+    private void buildHintTable() {
+        Configuration start = searchStart();
+        if (this.hintTable != null && this.hintTable.contains(start)) {
+            return;
+        }
+        if (this.pendingTable != null) {
+            if (start.equals(this.pendingTableStart)) {
+                return;
+            }
+            this.pendingTable.cancel(false);
+        }
+        this.hintTable = null;
+        CompletableFuture<DistanceTable> build = new CompletableFuture<>();
+        TABLE_EXECUTOR.execute(() -> {
+            try {
+                build.complete(DistanceTable.build(start, TABLE_BUDGET,
+                        build::isCancelled));
             }
+            catch (Throwable e) {
+                build.completeExceptionally(e);
+            }
+        });
+        this.pendingTable = build;
+        this.pendingTableStart = start;
+        build.whenComplete((table, error) -> finishHintTable(build, table));
+    }
+
+    /**
+     * Keeps the hint table once it is built, unless another board has been
+     * loaded since. If the build failed, hints keep being searched for.
+     *
+     * @param build the build that finished
+     * @param table the table built, null if the build failed
+     */
+    private synchronized void finishHintTable(CompletableFuture<DistanceTable> build,
+                                              DistanceTable table) {
+        if (build == this.pendingTable) {
+            this.pendingTable = null;
+            this.pendingTableStart = null;
+            this.hintTable = table;
+        }
+    }
+
+    /**
+     * Stops the search for a hint if one is running
+     */
+    private void cancelHint() {
+        if (this.pendingHint != null) {
+            this.pendingHint.cancel(false);
+            this.pendingHint = null;
+            this.pendingStart = null;
         }
     }
 
@@ -92,28 +330,20 @@ public class HoppersModel {
      *
      * @param filename name of file to load in
      */
-    public void load(String filename) {
+    public synchronized void load(String filename) {
+        cancelHint();
         this.filename = filename;
         try {
             //Read the file specified from input
-            BufferedReader in = new BufferedReader(
-                    new FileReader(filename));
-
-            //Get dimensions of the board and create it
-            String[] nextLine = in.readLine().split(" ");
-            int numRows = Integer.parseInt(nextLine[0]);
-            int numCols = Integer.parseInt(nextLine[1]);
-            String[][] board = new String[numRows][numCols];
-
-            //Sets up all of the frogs and spaces on the board
-            for (int i = 0; i < numRows; i++) {
-                nextLine = in.readLine().split(" ");
-                for (int j = 0; j < nextLine.length; j++) {
-                    board[i][j] = nextLine[j];
-                }
-            }
+            HoppersPuzzle puzzle = PuzzleLoader.loadHoppers(filename);
+            int numRows = puzzle.getNumRows();
+            int numCols = puzzle.getNumCols();
+            String[][] board = puzzle.getBoard();
 
             this.getCurrentConfig().setGame(numRows, numCols, board);
+            this.shape = makeShape(numRows, numCols, board);
+            this.endgame = this.shape == null ? null : HoppersEndgame.find(this.shape);
+            buildHintTable();
             alertObservers(new HoppersClientData("Loaded: " + filename));
         }
         catch (IOException e) {
@@ -139,7 +369,8 @@ public class HoppersModel {
      * @param row selected row on the board
      * @param col selected col on the board
      */
-    public void select(int row, int col) {
+    public synchronized void select(int row, int col) {
+        cancelHint();
         if (this.currentConfig.isGoal()) {
             alertObservers(new HoppersClientData("Already solved!"));
         }
@@ -195,7 +426,7 @@ public class HoppersModel {
      * The previously loaded file is loaded and the board is reset to its
      * original configuration.
      */
-    public void reset() {
+    public synchronized void reset() {
         load(this.filename);
         alertObservers(new HoppersClientData("Puzzle reset!"));
     }
@@ -203,7 +434,7 @@ public class HoppersModel {
     /**
      * @return current configuration of HoppersConfig
      */
-    public HoppersConfig getCurrentConfig() {
+    public synchronized HoppersConfig getCurrentConfig() {
         return currentConfig;
     }
 }
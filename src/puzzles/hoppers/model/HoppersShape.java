@@ -0,0 +1,606 @@
+package puzzles.hoppers.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Shape of a hoppers board: its size, which spaces are lily pads and every
+ * jump a frog can make between them. The jumps are worked out once per
+ * board and shared by every bitboard configuration of it, along with the
+ * reflections and rotations that map the board and its jumps onto
+ * themselves, and which frogs could ever jump over which. The lily pads
+ * are numbered row by row, and a board may have at most 128 of them.
+ * A frog can only ever be on the pads it can reach by jumping, so the pads
+ * fall into classes that frogs never leave, such as the four parity
+ * classes of the rows and columns on the stored boards.
+ */
+public class HoppersShape {
+    /** most lily pads a board may have */
+    public static final int MAX_CELLS = 128;
+
+    private final String SPACE_INVALID = "*";
+
+    private final int numRows;
+    private final int numCols;
+
+    /** number of the lily pad at each space, -1 for water */
+    private final int[][] cellIndex;
+
+    /** row and column of each lily pad */
+    private final int[] cellRow;
+    private final int[] cellCol;
+
+    /** lily pad jumped over and landed on for every jump from each pad,
+     * in the order HoppersConfig tries them */
+    private final int[][] jumpOver;
+    private final int[][] jumpTo;
+
+    /** lily pad each pad is moved to by every reflection and rotation
+     * that keeps the board and its jumps the same, the identity first */
+    private final int[][] symmetries;
+
+    /** for each lily pad, two words of the pads whose frog could one day
+     * jump over the frog that is on it now */
+    private final long[] jumpers;
+
+    /** class of the frogs that can be on each lily pad */
+    private final int[] classOf;
+
+    /** for each class, the classes a frog in it could jump over one of */
+    private final boolean[][] classJumps;
+
+    /** weight a frog has for each step it is away from a red frog, the
+     * smallest where a frog that jumps towards it never gains weight */
+    private static final double PAGODA_BASE = (Math.sqrt(5) - 1) / 2;
+
+    /** PAGODA_BASE to the power of each number of steps */
+    private final double[] pagoda;
+
+    /** fewest jumps from each lily pad to each other pad ignoring the
+     * other frogs, UNREACHABLE if a frog can never get there */
+    private final int[][] distance;
+
+    /** distance between lily pads a frog can never jump between */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    /**
+     * Works out the shape of a board
+     *
+     * @param rows number of rows on the board
+     * @param cols number of columns on the board
+     * @param board 2d array of the board, only the water is looked at
+     * @throws IllegalArgumentException if the board has too many lily pads
+     */
+    public HoppersShape(int rows, int cols, String[][] board) {
+        this.numRows = rows;
+        this.numCols = cols;
+        this.cellIndex = new int[rows][cols];
+        List<int[]> cells = new ArrayList<>();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (board[row][col].equals(this.SPACE_INVALID)) {
+                    cellIndex[row][col] = -1;
+                }
+                else {
+                    cellIndex[row][col] = cells.size();
+                    cells.add(new int[] {row, col});
+                }
+            }
+        }
+        if (cells.size() > MAX_CELLS) {
+            throw new IllegalArgumentException("Board has " + cells.size() +
+                    " lily pads, at most " + MAX_CELLS + " are supported");
+        }
+
+        int size = cells.size();
+        this.cellRow = new int[size];
+        this.cellCol = new int[size];
+        this.jumpOver = new int[size][];
+        this.jumpTo = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int row = cells.get(i)[0];
+            int col = cells.get(i)[1];
+            cellRow[i] = row;
+            cellCol[i] = col;
+
+            //Up-Left, Up-Right, Down-Right, Down-Left, then for pads on
+            //even rows and columns Up, Right, Down, Left
+            List<int[]> jumps = new ArrayList<>();
+            addJump(jumps, row, col, -2, -2);
+            addJump(jumps, row, col, -2, 2);
+            addJump(jumps, row, col, 2, 2);
+            addJump(jumps, row, col, 2, -2);
+            if (row % 2 == 0 && col % 2 == 0) {
+                addJump(jumps, row, col, -4, 0);
+                addJump(jumps, row, col, 0, 4);
+                addJump(jumps, row, col, 4, 0);
+                addJump(jumps, row, col, 0, -4);
+            }
+            jumpOver[i] = new int[jumps.size()];
+            jumpTo[i] = new int[jumps.size()];
+            for (int j = 0; j < jumps.size(); j++) {
+                jumpOver[i][j] = jumps.get(j)[0];
+                jumpTo[i][j] = jumps.get(j)[1];
+            }
+        }
+        this.symmetries = findSymmetries();
+        this.distance = new int[size][size];
+        long[] reach = findReach(distance);
+        this.jumpers = findJumpers(reach);
+        this.classOf = new int[size];
+        this.classJumps = findClasses(reach, classOf);
+        this.pagoda = new double[(rows + cols) / 2 + 1];
+        for (int steps = 0; steps < pagoda.length; steps++) {
+            pagoda[steps] = Math.pow(PAGODA_BASE, steps);
+        }
+    }
+
+    /**
+     * Works out the pads each frog can reach by jumping, ignoring where
+     * the other frogs are, and how many jumps it takes
+     *
+     * @param distance filled with the fewest jumps from each pad to each
+     *                 other pad, UNREACHABLE if there is no way
+     * @return two words per pad of the pads a frog on it can reach
+     */
+    private long[] findReach(int[][] distance) {
+        int size = cellRow.length;
+        long[] reach = new long[2 * size];
+        int[] queue = new int[size];
+        for (int start = 0; start < size; start++) {
+            Arrays.fill(distance[start], UNREACHABLE);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            reach[2 * start + (start >>> 6)] |= 1L << start;
+            distance[start][start] = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                for (int to: jumpTo[cell]) {
+                    long bit = 1L << to;
+                    if ((reach[2 * start + (to >>> 6)] & bit) == 0) {
+                        reach[2 * start + (to >>> 6)] |= bit;
+                        distance[start][to] = distance[start][cell] + 1;
+                        queue[tail++] = to;
+                    }
+                }
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * Splits the pads into classes of pads that frogs can jump between.
+     * Every jump can be made backwards, so the pads a frog can reach are
+     * the same from any of them.
+     *
+     * @param reach two words per pad of the pads a frog on it can reach
+     * @param classOf filled with the class of each pad
+     * @return for each class, the classes a frog in it could jump over one
+     * of
+     */
+    private boolean[][] findClasses(long[] reach, int[] classOf) {
+        int size = cellRow.length;
+        int[] classOfFirst = new int[size];
+        int numClasses = 0;
+        for (int cell = 0; cell < size; cell++) {
+            //Name each class after the first pad in it
+            int first = reach[2 * cell] != 0 ?
+                    Long.numberOfTrailingZeros(reach[2 * cell]) :
+                    64 + Long.numberOfTrailingZeros(reach[2 * cell + 1]);
+            if (first == cell) {
+                classOfFirst[cell] = numClasses++;
+            }
+            classOf[cell] = classOfFirst[first];
+        }
+        boolean[][] jumps = new boolean[numClasses][numClasses];
+        for (int cell = 0; cell < size; cell++) {
+            for (int over: jumpOver[cell]) {
+                jumps[classOf[cell]][classOf[over]] = true;
+            }
+        }
+        return jumps;
+    }
+
+    /**
+     * Works out which frogs could ever jump over which, ignoring where the
+     * other frogs are. The frog on pad q can one day jump over the frog on
+     * pad g only if a pad q can reach has a jump over a pad g can reach.
+     *
+     * @param reach two words per pad of the pads a frog on it can reach
+     * @return two words per pad of the pads whose frog could jump over it
+     */
+    private long[] findJumpers(long[] reach) {
+        int size = cellRow.length;
+
+        //Pads each frog could jump over from anywhere it can reach
+        long[] jumpable = new long[2 * size];
+        for (int start = 0; start < size; start++) {
+            for (int cell = 0; cell < size; cell++) {
+                if ((reach[2 * start + (cell >>> 6)] & (1L << cell)) != 0) {
+                    for (int over: jumpOver[cell]) {
+                        jumpable[2 * start + (over >>> 6)] |= 1L << over;
+                    }
+                }
+            }
+        }
+
+        long[] found = new long[2 * size];
+        for (int green = 0; green < size; green++) {
+            for (int jumper = 0; jumper < size; jumper++) {
+                if ((jumpable[2 * jumper] & reach[2 * green]) != 0 ||
+                        (jumpable[2 * jumper + 1] & reach[2 * green + 1]) != 0) {
+                    found[2 * green + (jumper >>> 6)] |= 1L << jumper;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if a board provably can not reach the goal. That is the case
+     * when there is no red frog, when a green frog has no other frog that
+     * could ever jump over it, or when no red frog could ever jump over any
+     * of the green frogs, since the last jump has to be a red frog taking
+     * the last green frog. It is also the case when the classes of green
+     * frogs can not be cleared in any order, see canClearClasses, or when
+     * the red frogs are too far from the green frogs for any of them to
+     * ever jump, see canRedStart.
+     *
+     * @param green0 green frogs on lily pads 0 to 63
+     * @param green1 green frogs on lily pads 64 to 127
+     * @param red0 red frogs on lily pads 0 to 63
+     * @param red1 red frogs on lily pads 64 to 127
+     * @return true if the board can never reach the goal, false if it
+     * might
+     */
+    boolean isDead(long green0, long green1, long red0, long red1) {
+        if ((red0 | red1) == 0) {
+            return true;
+        }
+        boolean redCanFinish = false;
+        for (int word = 0; word < 2; word++) {
+            long greens = word == 0 ? green0 : green1;
+            while (greens != 0) {
+                int cell = 64 * word + Long.numberOfTrailingZeros(greens);
+                greens &= greens - 1;
+                long others0 = green0 | red0;
+                long others1 = green1 | red1;
+                if (word == 0) {
+                    others0 &= ~(1L << cell);
+                }
+                else {
+                    others1 &= ~(1L << cell);
+                }
+                if ((others0 & jumpers[2 * cell]) == 0 &&
+                        (others1 & jumpers[2 * cell + 1]) == 0) {
+                    return true;
+                }
+                redCanFinish |= (red0 & jumpers[2 * cell]) != 0 ||
+                        (red1 & jumpers[2 * cell + 1]) != 0;
+            }
+        }
+        if ((green0 | green1) == 0) {
+            return false;
+        }
+        return !redCanFinish ||
+                !canClearClasses(green0, green1, red0, red1) ||
+                !canRedStart(green0, green1, red0, red1);
+    }
+
+    /**
+     * Checks if the classes holding green frogs can be cleared in some
+     * order. The last green frog of a class has to be taken by a frog of a
+     * class that can jump over it and still has a frog then: one with a
+     * red frog, or one whose green frogs are cleared later. Going back
+     * from the end, any class a class with a frog left can clear is added
+     * to those, which can only ever help the others.
+     *
+     * @return true if every class of green frogs can be cleared, false if
+     * one never can
+     */
+    private boolean canClearClasses(long green0, long green1,
+                                    long red0, long red1) {
+        int numClasses = classJumps.length;
+        boolean[] hasFrog = new boolean[numClasses];
+        boolean[] toClear = new boolean[numClasses];
+        markClasses(red0, 0, hasFrog);
+        markClasses(red1, 64, hasFrog);
+        markClasses(green0, 0, toClear);
+        markClasses(green1, 64, toClear);
+        boolean changed = true;
+        int left = 0;
+        while (changed) {
+            changed = false;
+            left = 0;
+            for (int cleared = 0; cleared < numClasses; cleared++) {
+                if (!toClear[cleared]) {
+                    continue;
+                }
+                boolean canClear = false;
+                for (int taker = 0; taker < numClasses && !canClear; taker++) {
+                    canClear = hasFrog[taker] && classJumps[taker][cleared];
+                }
+                if (canClear) {
+                    toClear[cleared] = false;
+                    hasFrog[cleared] = true;
+                    changed = true;
+                }
+                else {
+                    left++;
+                }
+            }
+        }
+        return left == 0;
+    }
+
+    /**
+     * Marks the classes of the frogs in one word
+     */
+    private void markClasses(long frogs, int base, boolean[] classes) {
+        while (frogs != 0) {
+            classes[classOf[base + Long.numberOfTrailingZeros(frogs)]] = true;
+            frogs &= frogs - 1;
+        }
+    }
+
+    /**
+     * Checks if some red frog can make its next jump. Red frogs only move
+     * by jumping, so until then only green frogs jump, and the next jump
+     * of a red frog is from where it is now over a green frog that has got
+     * to one of the pads next to it. Each green frog is given a pagoda
+     * weight of PAGODA_BASE to the power of the steps between it and the
+     * nearest of those pads, a step being half a jump. A green frog that
+     * jumps at most two steps closer over one at most a step closer never
+     * adds to the total, since PAGODA_BASE squared plus PAGODA_BASE is 1,
+     * and a green frog next to a red frog weighs 1 on its own. So if the
+     * green frogs weigh less than 1 together, none ever gets there.
+     * A green frog also takes another green frog with every jump, so none
+     * gets there either if each is more jumps away than there are other
+     * green frogs.
+     *
+     * @return true if the green frogs could get next to a red frog, false
+     * if they never can
+     */
+    private boolean canRedStart(long green0, long green1,
+                                long red0, long red1) {
+        int budget = Long.bitCount(green0) + Long.bitCount(green1) - 1;
+        double weight = 0;
+        boolean inTime = false;
+        for (int word = 0; word < 2; word++) {
+            long greens = word == 0 ? green0 : green1;
+            while (greens != 0) {
+                int green = 64 * word + Long.numberOfTrailingZeros(greens);
+                greens &= greens - 1;
+                weight += pagoda[stepsToRed(green, red0, red1)];
+                inTime = inTime || jumpsToRed(green, red0, red1) <= budget;
+            }
+        }
+        //Leave room for rounding, only a board that is surely dead is
+        return inTime && weight >= 1 - 1e-9;
+    }
+
+    /**
+     * @return the fewest jumps from the lily pad to a pad a red frog could
+     * jump over, UNREACHABLE if a frog on it can never get to one
+     */
+    private int jumpsToRed(int cell, long red0, long red1) {
+        int fewest = UNREACHABLE;
+        for (int word = 0; word < 2; word++) {
+            long reds = word == 0 ? red0 : red1;
+            while (reds != 0) {
+                int red = 64 * word + Long.numberOfTrailingZeros(reds);
+                reds &= reds - 1;
+                for (int over: jumpOver[red]) {
+                    fewest = Math.min(fewest, distance[cell][over]);
+                }
+            }
+        }
+        return fewest;
+    }
+
+    /**
+     * @return the fewest steps, of half a jump each, from the lily pad to
+     * a pad a red frog could jump over
+     */
+    private int stepsToRed(int cell, long red0, long red1) {
+        int fewest = pagoda.length - 1;
+        for (int word = 0; word < 2; word++) {
+            long reds = word == 0 ? red0 : red1;
+            while (reds != 0) {
+                int red = 64 * word + Long.numberOfTrailingZeros(reds);
+                reds &= reds - 1;
+                for (int over: jumpOver[red]) {
+                    //Half of every jump is one step diagonally or two
+                    //along a row or column
+                    int steps = (Math.abs(cellRow[cell] - cellRow[over]) +
+                            Math.abs(cellCol[cell] - cellCol[over])) / 2;
+                    fewest = Math.min(fewest, steps);
+                }
+            }
+        }
+        return fewest;
+    }
+
+    /**
+     * Tries the 8 reflections and rotations of the board, rotations and
+     * diagonal reflections only if the board is square, and keeps the ones
+     * that move every lily pad onto a lily pad and every jump onto a jump
+     *
+     * @return lily pad each pad is moved to, for every symmetry kept
+     */
+    private int[][] findSymmetries() {
+        List<int[]> found = new ArrayList<>();
+        int transforms = numRows == numCols ? 8 : 4;
+        for (int t = 0; t < transforms; t++) {
+            int[] mapping = new int[cellRow.length];
+            boolean valid = true;
+            for (int i = 0; i < cellRow.length && valid; i++) {
+                int row = cellRow[i];
+                int col = cellCol[i];
+                //Reflect top to bottom and left to right, then swap the
+                //rows and columns for the last 4
+                int newRow = (t & 1) == 0 ? row : numRows - 1 - row;
+                int newCol = (t & 2) == 0 ? col : numCols - 1 - col;
+                if ((t & 4) != 0) {
+                    int swap = newRow;
+                    newRow = newCol;
+                    newCol = swap;
+                }
+                mapping[i] = cellAt(newRow, newCol);
+                valid = mapping[i] >= 0;
+            }
+            if (valid && keepsJumps(mapping)) {
+                found.add(mapping);
+            }
+        }
+        return found.toArray(new int[0][]);
+    }
+
+    /**
+     * @return true if every jump moved by the mapping is also a jump
+     */
+    private boolean keepsJumps(int[] mapping) {
+        for (int i = 0; i < cellRow.length; i++) {
+            for (int j = 0; j < jumpOver[i].length; j++) {
+                int from = mapping[i];
+                boolean found = false;
+                for (int k = 0; k < jumpOver[from].length && !found; k++) {
+                    found = jumpOver[from][k] == mapping[jumpOver[i][j]] &&
+                            jumpTo[from][k] == mapping[jumpTo[i][j]];
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds the jump by the given offset if it lands on the board and both
+     * the space jumped over and the space landed on are lily pads
+     */
+    private void addJump(List<int[]> jumps, int row, int col,
+                         int rowOffset, int colOffset) {
+        int newRow = row + rowOffset;
+        int newCol = col + colOffset;
+        if (newRow < 0 || newRow >= numRows || newCol < 0 || newCol >= numCols) {
+            return;
+        }
+        int over = cellIndex[row + rowOffset / 2][col + colOffset / 2];
+        int to = cellIndex[newRow][newCol];
+        if (over >= 0 && to >= 0) {
+            jumps.add(new int[] {over, to});
+        }
+    }
+
+    /**
+     * @return number of rows on the board
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return number of columns on the board
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return number of lily pads on the board
+     */
+    public int getNumCells() {
+        return cellRow.length;
+    }
+
+    /**
+     * @param row row of a space
+     * @param col column of a space
+     * @return number of the lily pad at the space, or -1 if it is water
+     * or off the board
+     */
+    public int cellAt(int row, int col) {
+        if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+            return -1;
+        }
+        return cellIndex[row][col];
+    }
+
+    /**
+     * @param cell number of a lily pad
+     * @return row of the lily pad
+     */
+    public int rowOf(int cell) {
+        return cellRow[cell];
+    }
+
+    /**
+     * @param cell number of a lily pad
+     * @return column of the lily pad
+     */
+    public int colOf(int cell) {
+        return cellCol[cell];
+    }
+
+    /**
+     * @param cell number of a lily pad
+     * @return lily pads jumped over by the jumps from the pad
+     */
+    int[] jumpsOver(int cell) {
+        return jumpOver[cell];
+    }
+
+    /**
+     * @param cell number of a lily pad
+     * @return lily pads landed on by the jumps from the pad
+     */
+    int[] jumpsTo(int cell) {
+        return jumpTo[cell];
+    }
+
+    /**
+     * @return lily pad each pad is moved to by every reflection and
+     * rotation that keeps the board and its jumps the same, starting with
+     * the identity
+     */
+    int[][] symmetries() {
+        return symmetries;
+    }
+
+    /**
+     * @return number of reflections and rotations, counting the identity,
+     * that keep the board and its jumps the same
+     */
+    public int getNumSymmetries() {
+        return symmetries.length;
+    }
+
+    /**
+     * Compares the current shape to the given shape
+     *
+     * @param other shape to compare to
+     * @return true if both shapes have the same size and lily pads
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof HoppersShape) {
+            HoppersShape h = (HoppersShape) other;
+            result = this.numRows == h.numRows && this.numCols == h.numCols &&
+                    Arrays.deepEquals(this.cellIndex, h.cellIndex);
+        }
+        return result;
+    }
+
+    /**
+     * @return integer representing the hashcode of the lily pad layout
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.deepHashCode(this.cellIndex);
+    }
+}
@@ -1,14 +1,14 @@
 package puzzles.hoppers.ptui;
 
+import puzzles.common.HoppersPuzzle;
 import puzzles.common.Observer;
+import puzzles.common.PuzzleLoader;
 import puzzles.common.solver.Configuration;
 import puzzles.common.solver.Solver;
 import puzzles.hoppers.model.HoppersClientData;
 import puzzles.hoppers.model.HoppersConfig;
 import puzzles.hoppers.model.HoppersModel;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
@@ -130,27 +130,13 @@ public class HoppersPTUI implements Observer<HoppersModel, HoppersClientData> {
         else {
             try {
                 //Read the file specified from input
-                BufferedReader in = new BufferedReader(
-                        new FileReader(args[0]));
+                HoppersPuzzle puzzle = PuzzleLoader.loadHoppers(args[0]);
 
                 System.out.println("Loaded: " + args[0]);
 
-                //Get dimensions of the board and create it
-                String[] nextLine = in.readLine().split(" ");
-                int numRows = Integer.parseInt(nextLine[0]);
-                int numCols = Integer.parseInt(nextLine[1]);
-                String[][] board = new String[numRows][numCols];
-
-                //Sets up all of the frogs and spaces on the board
-                for (int i = 0; i < numRows; i++) {
-                    nextLine = in.readLine().split(" ");
-                    for (int j = 0; j < nextLine.length; j++) {
-                        board[i][j] = nextLine[j];
-                    }
-                }
-
-                HoppersPTUI ptui = new HoppersPTUI(
-                        args[0], numRows, numCols, board);
+                HoppersPTUI ptui = new HoppersPTUI(args[0],
+                        puzzle.getNumRows(), puzzle.getNumCols(),
+                        puzzle.getBoard());
                 ptui.run();
             }
             catch (IOException e) {System.out.println(e.getMessage());}
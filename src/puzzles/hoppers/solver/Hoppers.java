@@ -1,19 +1,34 @@
 package puzzles.hoppers.solver;
 
+import puzzles.common.HoppersPuzzle;
+import puzzles.common.PuzzleLoader;
+import puzzles.common.solver.BatchSolver;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
 import puzzles.common.solver.Solver;
 import puzzles.common.solver.Configuration;
+import puzzles.hoppers.model.HoppersBitConfig;
 import puzzles.hoppers.model.HoppersConfig;
+import puzzles.hoppers.model.HoppersEndgame;
+import puzzles.hoppers.model.HoppersShape;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
  * Simulates the hoppers puzzle. Uses the Solver to go through all possible
- * configurations of the puzzle and attempts to find a solution. Prints out
+ * configurations of the puzzle and attempts to find a solution. If an
+ * endgame database has been generated for the board shape, the search stops
+ * at the first board in it and the rest of the path is read from it. Prints out
  * starting arguments, number of total configurations, number of unique
- * configurations, and the solution if there is one
+ * configurations, and the solution if there is one. In batch mode every
+ * puzzle of a directory is solved at once and each solution is written to
+ * a file in the format of the stored outputs. With --prune boards that
+ * provably can not reach the goal are left out of the search, which finds
+ * the same path but counts fewer configurations, and ends boards that have
+ * no solution much sooner.
  */
 public class Hoppers {
     /**
@@ -22,62 +37,245 @@ public class Hoppers {
      *
      * @param args the first and only argument should be the name of a
      *             file that has the dimensions of the board and starting
-     *             configuration of the board
+     *             configuration of the board, or --batch followed by a
+     *             directory of puzzle files, the directory to write the
+     *             solutions to and optionally the number of threads, or
+     *             --prune followed by the file name
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java Hoppers filename");
+        run(args, System.out);
+    }
+
+    /**
+     * Runs the puzzle and writes the solution, if there is one, the same
+     * way main prints it
+     *
+     * @param args the first and only argument should be the name of a
+     *             file that has the dimensions of the board and starting
+     *             configuration of the board, or --batch followed by a
+     *             directory of puzzle files, the directory to write the
+     *             solutions to and optionally the number of threads, or
+     *             --prune followed by the file name
+     * @param out stream to write the output to
+     */
+    public static void run(String[] args, PrintStream out) {
+        if (args.length >= 3 && args.length <= 4 && args[0].equals("--batch")) {
+            batch(args, out);
+        }
+        else if (args.length != 1 &&
+                !(args.length == 2 && args[0].equals("--prune"))) {
+            out.println("Usage: java Hoppers filename");
+            out.println("       java Hoppers --batch directory " +
+                    "outputDirectory [threads]");
+            out.println("       java Hoppers --prune filename");
         }
         else {
+            String file = args[args.length - 1];
             try {
                 //Read the file specified from input
-                BufferedReader in = new BufferedReader(
-                        new FileReader(args[0]));
-
-                System.out.println("File: " + args[0]);
-
-                //Get dimensions of the board and create it
-                String[] nextLine = in.readLine().split(" ");
-                int numRows = Integer.parseInt(nextLine[0]);
-                int numCols = Integer.parseInt(nextLine[1]);
-                String[][] board = new String[numRows][numCols];
-
-                //Sets up all of the frogs and spaces on the board
-                for (int i = 0; i < numRows; i++) {
-                    nextLine = in.readLine().split(" ");
-                    for (int j = 0; j < nextLine.length; j++) {
-                        board[i][j] = nextLine[j];
-                        System.out.print(nextLine[j] + " ");
-                    }
-                    System.out.println();
-                }
+                run(file, PuzzleLoader.loadHoppers(file), args.length == 2, out);
+            }
+            catch (IOException e) {out.println(e.getMessage());}
+
+        }
+    }
+
+    /**
+     * Solves a puzzle that has already been read and writes the solution,
+     * if there is one, the same way main prints it
+     *
+     * @param file name of the file the puzzle was read from
+     * @param puzzle the puzzle
+     * @param out stream to write the output to
+     */
+    public static void run(String file, HoppersPuzzle puzzle, PrintStream out) {
+        run(file, puzzle, false, out);
+    }
+
+    /**
+     * Solves a puzzle that has already been read and writes the solution,
+     * if there is one, the same way main prints it
+     *
+     * @param file name of the file the puzzle was read from
+     * @param puzzle the puzzle
+     * @param pruning true to leave out boards that can not reach the goal
+     * @param out stream to write the output to
+     */
+    public static void run(String file, HoppersPuzzle puzzle, boolean pruning,
+                           PrintStream out) {
+        run(file, puzzle, pruning, SearchBudget.unlimited(), out);
+    }
+
+    /**
+     * Solves a puzzle that has already been read like run, but gives up
+     * if the search goes over the budget
+     *
+     * @param file name of the file the puzzle was read from
+     * @param puzzle the puzzle
+     * @param pruning true to leave out boards that can not reach the goal
+     * @param budget limits on the search
+     * @param out stream to write the output to
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public static void run(String file, HoppersPuzzle puzzle, boolean pruning,
+                           SearchBudget budget, PrintStream out) {
+        int numRows = puzzle.getNumRows();
+        int numCols = puzzle.getNumCols();
+        String[][] board = puzzle.getBoard();
+
+        out.println("File: " + file);
+
+        //Print all of the frogs and spaces on the board
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                out.print(board[i][j] + " ");
+            }
+            out.println();
+        }
 
-                //Make a new solver and starting configuration
-                Solver hopperSolver = new Solver();
-                HoppersConfig start = new HoppersConfig(
-                        numRows, numCols, board);
-
-                //Get path if there is one
-                List<Configuration> solution = hopperSolver.doBFS(start);
-
-                //Print output
-                System.out.println("Total configs: " +
-                        hopperSolver.getTotalConfigs());
-                System.out.println("Unique configs: " +
-                        hopperSolver.getUniqueConfigs());
-                if (!solution.isEmpty()) {
-                    for (int i = 0; i < solution.size(); i++) {
-                        System.out.println("Step " + i + ": \n" +
-                                solution.get(i).toString());
+        //Make a new solver and get path if there is one
+        Solver hopperSolver = new Solver().withBudget(budget);
+        List<Configuration> solution = solve(hopperSolver, puzzle, pruning);
+
+        //Print output
+        out.println("Total configs: " + hopperSolver.getTotalConfigs());
+        out.println("Unique configs: " + hopperSolver.getUniqueConfigs());
+        if (!solution.isEmpty()) {
+            for (int i = 0; i < solution.size(); i++) {
+                out.println("Step " + i + ": \n" +
+                        solution.get(i).toString());
+            }
+        }
+        else {
+            out.println("No solution");
+        }
+    }
+
+    /**
+     * Solves the puzzle from a bitboard starting configuration. If an
+     * endgame database has been generated for the board shape, the search
+     * stops at the first board in it and the path is finished from it.
+     * A board with too many lily pads for bitboards is solved from a
+     * HoppersConfig instead, as HoppersModel does, and is never pruned.
+     *
+     * @param solver solver to search with
+     * @param puzzle the puzzle
+     * @param pruning true to leave out boards that can not reach the goal
+     * @return path from the starting config to the ending config, or an
+     * empty list if there is none
+     */
+    private static List<Configuration> solve(Solver solver, HoppersPuzzle puzzle,
+                                             boolean pruning) {
+        String[][] board = puzzle.getBoard();
+        HoppersShape shape;
+        try {
+            shape = new HoppersShape(puzzle.getNumRows(), puzzle.getNumCols(),
+                    board);
+        }
+        catch (IllegalArgumentException e) {
+            return solver.doBFS(new HoppersConfig(puzzle.getNumRows(),
+                    puzzle.getNumCols(), board));
+        }
+        HoppersEndgame endgame = HoppersEndgame.find(shape);
+        HoppersBitConfig start = new HoppersBitConfig(shape, board)
+                .withEndgame(endgame).withPruning(pruning);
+
+        List<Configuration> solution = solver.doBFS(start);
+        if (endgame != null && !solution.isEmpty()) {
+            HoppersBitConfig last = (HoppersBitConfig)
+                    solution.remove(solution.size() - 1);
+            solution.addAll(endgame.finish(last));
+        }
+        return solution;
+    }
+
+    /**
+     * Solves every puzzle of a directory and writes the solutions
+     *
+     * @param args --batch, the directory of puzzle files, the directory to
+     *             write the solutions to and optionally the number of threads
+     * @param out stream to write the result to
+     */
+    private static void batch(String[] args, PrintStream out) {
+        int threads = args.length == 4 ? Integer.parseInt(args[3]) :
+                Runtime.getRuntime().availableProcessors();
+        BatchSolver solver = new BatchSolver(
+                file -> new HoppersJob(PuzzleLoader.loadHoppers(file)), threads);
+        try {
+            long start = System.currentTimeMillis();
+            int written = solver.solveDirectory(Path.of(args[1]), Path.of(args[2]));
+            out.println("Solved " + written + " puzzles in " +
+                    (System.currentTimeMillis() - start) + " ms");
+        }
+        catch (IOException e) {out.println(e.getMessage());}
+    }
+
+    /**
+     * Hoppers puzzle of a batch
+     */
+    private static class HoppersJob implements BatchSolver.Job {
+        private final HoppersPuzzle puzzle;
+
+        private HoppersJob(HoppersPuzzle puzzle) {
+            this.puzzle = puzzle;
+        }
+
+        @Override
+        public String describe() {
+            return rows(puzzle.getBoard());
+        }
+
+        @Override
+        public List<Configuration> solve(Solver solver) {
+            return Hoppers.solve(solver, puzzle, false);
+        }
+
+        /**
+         * @return the log of the number of ways the frogs could be placed
+         * on the lily pads, which is how large the search can get
+         */
+        @Override
+        public double getDifficulty() {
+            int pads = 0;
+            int frogs = 0;
+            for (String[] row: puzzle.getBoard()) {
+                for (String space: row) {
+                    if (!space.equals("*")) {
+                        pads++;
+                    }
+                    if (space.equals("G") || space.equals("R")) {
+                        frogs++;
                     }
                 }
-                else {
-                    System.out.println("No solution");
-                }
+            }
+            double placements = 0;
+            for (int i = 0; i < frogs; i++) {
+                placements += Math.log((double) (pads - i) / (i + 1));
+            }
+            return placements;
+        }
 
+        @Override
+        public String format(Configuration step) {
+            if (step instanceof HoppersBitConfig) {
+                return rows(((HoppersBitConfig) step).getBoard());
             }
-            catch (IOException e) {System.out.println(e.getMessage());}
+            return rows(((HoppersConfig) step).getBoard());
+        }
 
+        /**
+         * @return the spaces of the board separated by spaces, one row
+         * per line
+         */
+        private static String rows(String[][] board) {
+            StringBuilder out = new StringBuilder();
+            for (int row = 0; row < board.length; row++) {
+                if (row > 0) {
+                    out.append('\n');
+                }
+                out.append(String.join(" ", board[row]));
+            }
+            return out.toString();
         }
     }
 }
@@ -0,0 +1,54 @@
+package puzzles.hoppers.solver;
+
+import puzzles.common.HoppersPuzzle;
+import puzzles.common.PuzzleLoader;
+import puzzles.hoppers.model.HoppersEndgame;
+import puzzles.hoppers.model.HoppersShape;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates the endgame database of the board shape of a hoppers puzzle
+ * file. The database is written to the endgame directory, where Hoppers
+ * and the hoppers model look for it, under the name of the shape.
+ */
+public class HoppersEndgameBuilder {
+    /**
+     * The main method that generates the database and prints where it was
+     * written
+     *
+     * @param args name of a hoppers puzzle file, the most green frogs a
+     *             placement in the database may have, and optionally the
+     *             directory to write the database to
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println(
+                    "Usage: java HoppersEndgameBuilder filename greens [directory]");
+        }
+        else {
+            try {
+                //Read the shape of the board from the file
+                HoppersPuzzle puzzle = PuzzleLoader.loadHoppers(args[0]);
+                HoppersShape shape = new HoppersShape(puzzle.getNumRows(),
+                        puzzle.getNumCols(), puzzle.getBoard());
+
+                Path directory = Path.of(args.length == 3 ? args[2] :
+                        System.getProperty("hoppers.endgame.dir",
+                                HoppersEndgame.DEFAULT_DIRECTORY));
+                Files.createDirectories(directory);
+                Path file = directory.resolve(HoppersEndgame.fileName(shape));
+
+                long start = System.currentTimeMillis();
+                long placements = HoppersEndgame.generate(shape,
+                        Integer.parseInt(args[1]), file);
+                System.out.println("Wrote " + placements + " placements to " +
+                        file + " in " + (System.currentTimeMillis() - start) +
+                        " ms");
+            }
+            catch (IOException e) {System.out.println(e.getMessage());}
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package puzzles.jam.model;
+
+import puzzles.common.JamPuzzle;
+
+import java.util.Arrays;
+
+/**
+ * Layout of the cars of a jam puzzle, the part of a board that never
+ * changes. Every car stays on one row or one column, so where it is can be
+ * given by a single offset along that line. Each space of the board is one
+ * bit of a long, numbered row by row, and for every car and offset the
+ * spaces it covers and the spaces just behind and in front of it are
+ * worked out once, so moving a car is a test of one bit against the spaces
+ * that are taken. Every configuration of the puzzle shares one layout.
+ */
+public class JamBoard {
+    /** name of the car that has to reach the edge of the board */
+    public static final char GOAL_CAR = 'X';
+
+    private final String SPACE_EMPTY = ".";
+
+    private final int numRows;
+    private final int numCols;
+    private final char[] names;
+
+    /** true if the car moves up and down, false if it moves sideways */
+    private final boolean[] vertical;
+
+    /** row of a car that moves sideways, column of one that moves up and down */
+    private final int[] line;
+
+    private final int[] length;
+
+    /** largest offset each car can have */
+    private final int[] maxOffset;
+
+    /** spaces covered by every car at every offset */
+    private final long[][] covers;
+
+    /** space a car at an offset moves into when it goes back, 0 at offset 0 */
+    private final long[][] behind;
+
+    /** space a car at an offset moves into when it goes ahead, 0 at the edge */
+    private final long[][] ahead;
+
+    /** number of the goal car */
+    private final int goalCar;
+
+    /** bits of every space of the board */
+    private final long spaces;
+
+    /**
+     * Makes the layout of the cars of a puzzle
+     *
+     * @param puzzle puzzle read from a file
+     * @throws IllegalArgumentException if the board has more than 64
+     * spaces, a car does not lie in one row or column or is off the board,
+     * or there is no goal car
+     */
+    public JamBoard(JamPuzzle puzzle) {
+        this.numRows = puzzle.getNumRows();
+        this.numCols = puzzle.getNumCols();
+        if (numRows * numCols > Long.SIZE) {
+            throw new IllegalArgumentException("Board of " + numRows + "x" +
+                    numCols + " has more than " + Long.SIZE + " spaces");
+        }
+        int numCars = puzzle.getNumCars();
+        this.names = new char[numCars];
+        this.vertical = new boolean[numCars];
+        this.line = new int[numCars];
+        this.length = new int[numCars];
+        this.maxOffset = new int[numCars];
+        this.covers = new long[numCars][];
+        this.behind = new long[numCars][];
+        this.ahead = new long[numCars][];
+        this.spaces = numRows * numCols == Long.SIZE ? -1L :
+                (1L << (numRows * numCols)) - 1;
+
+        int goal = -1;
+        for (int car = 0; car < numCars; car++) {
+            int startRow = puzzle.getStartRow(car);
+            int startCol = puzzle.getStartCol(car);
+            int endRow = puzzle.getEndRow(car);
+            int endCol = puzzle.getEndCol(car);
+            if (startRow != endRow && startCol != endCol) {
+                throw new IllegalArgumentException("Car " +
+                        puzzle.getName(car) + " is not in one row or column");
+            }
+            names[car] = puzzle.getName(car);
+            vertical[car] = startRow != endRow;
+            line[car] = vertical[car] ? startCol : startRow;
+            length[car] = vertical[car] ? Math.abs(endRow - startRow) + 1 :
+                    Math.abs(endCol - startCol) + 1;
+            maxOffset[car] = (vertical[car] ? numRows : numCols) - length[car];
+            if (maxOffset[car] < 0 || line[car] < 0 ||
+                    line[car] >= (vertical[car] ? numCols : numRows) ||
+                    offsetOf(puzzle, car) < 0 ||
+                    offsetOf(puzzle, car) > maxOffset[car]) {
+                throw new IllegalArgumentException("Car " + names[car] +
+                        " is off the board");
+            }
+
+            covers[car] = new long[maxOffset[car] + 1];
+            behind[car] = new long[maxOffset[car] + 1];
+            ahead[car] = new long[maxOffset[car] + 1];
+            for (int offset = 0; offset <= maxOffset[car]; offset++) {
+                for (int i = 0; i < length[car]; i++) {
+                    covers[car][offset] |= bit(car, offset + i);
+                }
+                if (offset > 0) {
+                    behind[car][offset] = bit(car, offset - 1);
+                }
+                if (offset < maxOffset[car]) {
+                    ahead[car][offset] = bit(car, offset + length[car]);
+                }
+            }
+            if (names[car] == GOAL_CAR) {
+                goal = car;
+            }
+        }
+        if (goal < 0) {
+            throw new IllegalArgumentException("There is no car " + GOAL_CAR);
+        }
+        this.goalCar = goal;
+    }
+
+    /**
+     * @return offset of a car of the puzzle along its line
+     */
+    private int offsetOf(JamPuzzle puzzle, int car) {
+        return vertical[car] ?
+                Math.min(puzzle.getStartRow(car), puzzle.getEndRow(car)) :
+                Math.min(puzzle.getStartCol(car), puzzle.getEndCol(car));
+    }
+
+    /**
+     * @return bit of the space the given distance along the line of a car
+     */
+    private long bit(int car, int along) {
+        return vertical[car] ? 1L << (along * numCols + line[car]) :
+                1L << (line[car] * numCols + along);
+    }
+
+    /**
+     * @param puzzle puzzle read from a file, with the same cars as the
+     *               layout was made from
+     * @return offset of every car in the puzzle
+     */
+    byte[] offsets(JamPuzzle puzzle) {
+        byte[] offsets = new byte[names.length];
+        for (int car = 0; car < offsets.length; car++) {
+            offsets[car] = (byte) offsetOf(puzzle, car);
+        }
+        return offsets;
+    }
+
+    /**
+     * @return number of rows of the board
+     */
+    public int getNumRows() {
+        return numRows;
+    }
+
+    /**
+     * @return number of columns of the board
+     */
+    public int getNumCols() {
+        return numCols;
+    }
+
+    /**
+     * @return number of cars on the board
+     */
+    public int getNumCars() {
+        return names.length;
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return name of the car
+     */
+    public char getName(int car) {
+        return names[car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return true if the car moves up and down, false if it moves sideways
+     */
+    public boolean isVertical(int car) {
+        return vertical[car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return number of spaces the car covers
+     */
+    public int getLength(int car) {
+        return length[car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return largest offset the car can have
+     */
+    public int getMaxOffset(int car) {
+        return maxOffset[car];
+    }
+
+    /**
+     * @return number of the car that has to reach the edge of the board
+     */
+    public int getGoalCar() {
+        return goalCar;
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @param offset offset of the car along its line
+     * @return row of the front of the car
+     */
+    public int rowOf(int car, int offset) {
+        return vertical[car] ? offset : line[car];
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @param offset offset of the car along its line
+     * @return column of the front of the car
+     */
+    public int colOf(int car, int offset) {
+        return vertical[car] ? line[car] : offset;
+    }
+
+    /**
+     * @return spaces covered by the car at the offset
+     */
+    long covers(int car, int offset) {
+        return covers[car][offset];
+    }
+
+    /**
+     * @return space the car at the offset moves into when it goes back,
+     * 0 if it is at the start of its line
+     */
+    long behind(int car, int offset) {
+        return behind[car][offset];
+    }
+
+    /**
+     * @return space the car at the offset moves into when it goes ahead,
+     * 0 if it is at the end of its line
+     */
+    long ahead(int car, int offset) {
+        return ahead[car][offset];
+    }
+
+    /**
+     * @return bits of every space of the board
+     */
+    long spaces() {
+        return spaces;
+    }
+
+    /**
+     * @param offsets offset of every car
+     * @return 2d array of the board, with the name of the car on every
+     * space it covers and a . on every empty space
+     */
+    public String[][] toGrid(byte[] offsets) {
+        String[][] grid = new String[numRows][numCols];
+        for (String[] row: grid) {
+            Arrays.fill(row, this.SPACE_EMPTY);
+        }
+        for (int car = 0; car < names.length; car++) {
+            String name = String.valueOf(names[car]);
+            for (int i = 0; i < length[car]; i++) {
+                int along = offsets[car] + i;
+                if (vertical[car]) {
+                    grid[along][line[car]] = name;
+                }
+                else {
+                    grid[line[car]][along] = name;
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Compares the current layout to the given layout
+     *
+     * @param other other layout to compare to
+     * @return true if both have the same board size and the same cars on
+     * the same lines, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof JamBoard) {
+            JamBoard b = (JamBoard) other;
+            result = this.numRows == b.numRows && this.numCols == b.numCols &&
+                    Arrays.equals(this.names, b.names) &&
+                    Arrays.equals(this.vertical, b.vertical) &&
+                    Arrays.equals(this.line, b.line) &&
+                    Arrays.equals(this.length, b.length);
+        }
+        return result;
+    }
+
+    /**
+     * @return integer representing the hashcode of the layout
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * numRows + numCols) + Arrays.hashCode(names);
+    }
+}
@@ -0,0 +1,18 @@
+package puzzles.jam.model;
+
+import java.util.Objects;
+
+public class JamClientData {
+    private String message = "";
+
+    public JamClientData(String message) {
+        this.message = Objects.toString(message, "");
+    }
+
+    /**
+     * @return status message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+}
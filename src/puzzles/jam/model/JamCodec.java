@@ -0,0 +1,59 @@
+package puzzles.jam.model;
+
+import puzzles.common.solver.StateCodec;
+
+/**
+ * Packs the car offsets of a jam configuration into a single long, with
+ * the same number of bits for every car, enough for the largest offset of
+ * any of them. The layout of the cars is the same for every configuration
+ * of a puzzle, so it is kept once in the codec.
+ */
+public class JamCodec implements StateCodec<JamConfig> {
+    private final JamBoard board;
+
+    /** bits each car offset takes */
+    private final int bitsPerCar;
+
+    /**
+     * Creates a codec for the puzzle the given configuration belongs to
+     *
+     * @param config any configuration of the puzzle
+     * @throws IllegalArgumentException if the offsets of the cars can not
+     * all be packed into a long
+     */
+    public JamCodec(JamConfig config) {
+        this.board = config.getBoard();
+        int largest = 1;
+        for (int car = 0; car < board.getNumCars(); car++) {
+            largest = Math.max(largest, board.getMaxOffset(car));
+        }
+        this.bitsPerCar = Integer.SIZE - Integer.numberOfLeadingZeros(largest);
+        if (bitsPerCar * board.getNumCars() > Long.SIZE - 1) {
+            throw new IllegalArgumentException(board.getNumCars() +
+                    " cars do not fit in a long");
+        }
+    }
+
+    /**
+     * @return bits each car offset takes
+     */
+    public int getBitsPerCar() {
+        return bitsPerCar;
+    }
+
+    @Override
+    public long encode(JamConfig config) {
+        return config.pack(bitsPerCar);
+    }
+
+    @Override
+    public JamConfig decode(long state) {
+        byte[] offsets = new byte[board.getNumCars()];
+        long mask = (1L << bitsPerCar) - 1;
+        for (int car = 0; car < offsets.length; car++) {
+            offsets[car] = (byte) (state & mask);
+            state >>>= bitsPerCar;
+        }
+        return new JamConfig(board, offsets);
+    }
+}
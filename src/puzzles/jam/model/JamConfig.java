@@ -0,0 +1,257 @@
+package puzzles.jam.model;
+
+import puzzles.common.JamPuzzle;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SuccessorSink;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Single configuration of the jam puzzle. The cars are kept as one byte
+ * offset each along the line they move on, and the spaces they cover as a
+ * bitboard of the whole board. A move slides one car a single space back
+ * or ahead, and whether it can is one bit of the bitboard. The puzzle is
+ * solved once the goal car X is at the far end of its line, which for the
+ * stored puzzles is the right edge of the board.
+ */
+public class JamConfig implements Configuration {
+    private final JamBoard board;
+
+    /** offset of every car along its line */
+    private final byte[] offsets;
+
+    /** spaces covered by a car */
+    private final long occupied;
+
+    private JamConfig(JamBoard board, byte[] offsets, long occupied) {
+        this.board = board;
+        this.offsets = offsets;
+        this.occupied = occupied;
+    }
+
+    /**
+     * Makes the starting configuration of a puzzle
+     *
+     * @param puzzle puzzle read from a file
+     * @throws IllegalArgumentException if the cars of the puzzle do not
+     * fit on its board, see JamBoard
+     */
+    public JamConfig(JamPuzzle puzzle) {
+        this(new JamBoard(puzzle), puzzle);
+    }
+
+    /**
+     * Makes the starting configuration of a puzzle on a layout made from it
+     *
+     * @param board layout of the cars of the puzzle
+     * @param puzzle puzzle read from a file
+     */
+    public JamConfig(JamBoard board, JamPuzzle puzzle) {
+        this(board, board.offsets(puzzle));
+    }
+
+    /**
+     * Makes the configuration with the cars at the given offsets
+     *
+     * @param board layout of the cars
+     * @param offsets offset of every car along its line
+     * @throws IllegalArgumentException if two cars cover the same space
+     */
+    public JamConfig(JamBoard board, byte[] offsets) {
+        this.board = board;
+        this.offsets = offsets.clone();
+        long covered = 0;
+        for (int car = 0; car < offsets.length; car++) {
+            long carSpaces = board.covers(car, offsets[car]);
+            if ((covered & carSpaces) != 0) {
+                throw new IllegalArgumentException("Car " +
+                        board.getName(car) + " covers another car");
+            }
+            covered |= carSpaces;
+        }
+        this.occupied = covered;
+    }
+
+    /**
+     * @return layout of the cars
+     */
+    public JamBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @return offset of the car along its line
+     */
+    public int getOffset(int car) {
+        return offsets[car];
+    }
+
+    /**
+     * @return spaces covered by a car, one bit per space row by row
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @param row row of a space
+     * @param col column of a space
+     * @return number of the car covering the space, or -1 if it is empty
+     */
+    public int carAt(int row, int col) {
+        long space = 1L << (row * board.getNumCols() + col);
+        if ((occupied & space) != 0) {
+            for (int car = 0; car < offsets.length; car++) {
+                if ((board.covers(car, offsets[car]) & space) != 0) {
+                    return car;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param car number of the car, in the order of the file
+     * @param offset offset to move the car to along its line
+     * @return the configuration with the car moved, or null if another car
+     * is in the way or the offset is off the board
+     */
+    public JamConfig slide(int car, int offset) {
+        if (offset < 0 || offset > board.getMaxOffset(car)) {
+            return null;
+        }
+        long others = occupied & ~board.covers(car, offsets[car]);
+        int from = Math.min(offset, offsets[car]);
+        int to = Math.max(offset, offsets[car]);
+        for (int along = from; along <= to; along++) {
+            if ((others & board.covers(car, along)) != 0) {
+                return null;
+            }
+        }
+        return moved(car, offset);
+    }
+
+    /**
+     * @return the configuration with the car at the offset, which must be
+     * free
+     */
+    private JamConfig moved(int car, int offset) {
+        byte[] newOffsets = offsets.clone();
+        newOffsets[car] = (byte) offset;
+        return new JamConfig(board, newOffsets, occupied ^
+                board.covers(car, offsets[car]) ^ board.covers(car, offset));
+    }
+
+    /**
+     * @return an ArrayList of all possible successor configurations for
+     * the current configuration
+     */
+    @Override
+    public Collection<Configuration> getSuccessors() {
+        Collection<Configuration> successors = new ArrayList<>();
+        forEachSuccessor(successors::add);
+        return successors;
+    }
+
+    /**
+     * Moves every car one space back then one space ahead, in the order of
+     * the file, whenever the space it moves into is empty
+     *
+     * @param sink receives each successor
+     */
+    @Override
+    public void forEachSuccessor(SuccessorSink sink) {
+        for (int car = 0; car < offsets.length; car++) {
+            int offset = offsets[car];
+            long back = board.behind(car, offset);
+            if (back != 0 && (occupied & back) == 0) {
+                sink.accept(moved(car, offset - 1));
+            }
+            long forward = board.ahead(car, offset);
+            if (forward != 0 && (occupied & forward) == 0) {
+                sink.accept(moved(car, offset + 1));
+            }
+        }
+    }
+
+    /**
+     * @return true if the goal car is at the far end of its line.
+     * Otherwise, returns false.
+     */
+    @Override
+    public boolean isGoal() {
+        int car = board.getGoalCar();
+        return offsets[car] == board.getMaxOffset(car);
+    }
+
+    /**
+     * @return offset of every car, packed into a long by the given number
+     * of bits per car, first car lowest
+     */
+    long pack(int bitsPerCar) {
+        long state = 0;
+        for (int car = offsets.length - 1; car >= 0; car--) {
+            state = (state << bitsPerCar) | offsets[car];
+        }
+        return state;
+    }
+
+    /**
+     * @return 2d array of the board, with the name of the car on every
+     * space it covers and a . on every empty space
+     */
+    public String[][] getGrid() {
+        return board.toGrid(offsets);
+    }
+
+    /**
+     * Compares current board config to the given board config
+     *
+     * @param other other config to compare to
+     * @return true if every car is at the same offset on the same layout,
+     * false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof JamConfig) {
+            JamConfig j = (JamConfig) other;
+            result = this.occupied == j.occupied &&
+                    Arrays.equals(this.offsets, j.offsets) &&
+                    (this.board == j.board || this.board.equals(j.board));
+        }
+        return result;
+    }
+
+    /**
+     * @return integer representing the hashcode of the car offsets
+     */
+    @Override
+    public int hashCode() {
+        long hash = occupied * 0x9E3779B97F4A7C15L;
+        for (byte offset: offsets) {
+            hash = (hash ^ offset) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return String that represents the current board configuration in
+     * a grid format, the spaces of a row separated by spaces
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        String[][] grid = getGrid();
+        for (int row = 0; row < grid.length; row++) {
+            if (row > 0) {
+                result.append('\n');
+            }
+            result.append(String.join(" ", grid[row]));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package puzzles.jam.model;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.LongHashMap;
+import puzzles.common.solver.SearchAbortedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distance to the nearest goal for every board of the cluster a jam board
+ * belongs to, the boards it can reach and that can reach it. Every move of
+ * a car can be undone, so the cluster is found by one BFS from the board,
+ * goals included, with each board packed into a long by a JamCodec and
+ * numbered in a LongHashMap. The moves are kept as lists of numbers, and a
+ * second BFS from every goal over them fills an int per board. After that
+ * the distance of a board and the next step of a hint are lookups with no
+ * search. Unlike DistanceTable, no configuration object is kept per board.
+ */
+public class JamDistanceTable {
+    /** distance of a board that can not reach a goal */
+    public static final int UNREACHABLE = -1;
+
+    /** distance of a board that is not in the cluster */
+    public static final int NOT_FOUND = -2;
+
+    private final JamBoard board;
+    private final JamCodec codec;
+
+    /** number of every board, keyed by its packed offsets */
+    private final LongHashMap ids;
+
+    /** packed offsets of the board with each number */
+    private final long[] states;
+
+    /** index in neighbours of the first move of each board */
+    private final int[] firstMove;
+
+    /** numbers of the boards each board moves to, in successor order */
+    private final int[] neighbours;
+
+    /** moves from each board to the nearest goal */
+    private final int[] distances;
+
+    private JamDistanceTable(JamCodec codec, LongHashMap ids, long[] states,
+                             int[] firstMove, int[] neighbours,
+                             int[] distances) {
+        this.board = codec.decode(states[0]).getBoard();
+        this.codec = codec;
+        this.ids = ids;
+        this.states = states;
+        this.firstMove = firstMove;
+        this.neighbours = neighbours;
+        this.distances = distances;
+    }
+
+    /**
+     * Builds the table for the whole cluster of the board
+     *
+     * @param start any board of the cluster
+     * @return the finished table
+     * @throws IllegalArgumentException if the cars can not be packed into
+     * a long, see JamCodec
+     */
+    public static JamDistanceTable build(JamConfig start) {
+        return build(start, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Builds the table for the whole cluster of the board, giving up if
+     * it has more boards than the limit
+     *
+     * @param start any board of the cluster
+     * @param maxBoards most boards the cluster may have
+     * @return the finished table
+     * @throws SearchAbortedException if the cluster has more boards
+     * @throws IllegalArgumentException if the cars can not be packed into
+     * a long, see JamCodec
+     */
+    public static JamDistanceTable build(JamConfig start, int maxBoards) {
+        JamCodec codec = new JamCodec(start);
+
+        //Number every board of the cluster in BFS order and record the
+        //moves of each one after the other
+        LongHashMap ids = new LongHashMap();
+        long[] states = new long[64];
+        boolean[] goals = new boolean[64];
+        int[] firstMove = new int[65];
+        int[] neighbours = new int[256];
+        int size = 1;
+        int moves = 0;
+        states[0] = codec.encode(start);
+        ids.putIfAbsent(states[0], 0);
+        List<Configuration> successors = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            JamConfig current = codec.decode(states[id]);
+            goals[id] = current.isGoal();
+            successors.clear();
+            current.forEachSuccessor(successors::add);
+            for (Configuration successor: successors) {
+                long state = codec.encode((JamConfig) successor);
+                if (ids.putIfAbsent(state, size)) {
+                    if (size == states.length) {
+                        states = Arrays.copyOf(states, size * 2);
+                        goals = Arrays.copyOf(goals, size * 2);
+                        firstMove = Arrays.copyOf(firstMove, size * 2 + 1);
+                    }
+                    if (size == maxBoards) {
+                        throw new SearchAbortedException("Limit of " +
+                                maxBoards + " boards reached");
+                    }
+                    states[size++] = state;
+                }
+                if (moves == neighbours.length) {
+                    neighbours = Arrays.copyOf(neighbours, moves * 2);
+                }
+                neighbours[moves++] = (int) ids.get(state);
+            }
+            firstMove[id + 1] = moves;
+        }
+
+        //BFS from every goal, every move being its own reverse
+        int[] distances = new int[size];
+        Arrays.fill(distances, UNREACHABLE);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        for (int id = 0; id < size; id++) {
+            if (goals[id]) {
+                distances[id] = 0;
+                queue[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int id = queue[head++];
+            for (int i = firstMove[id]; i < firstMove[id + 1]; i++) {
+                int neighbour = neighbours[i];
+                if (distances[neighbour] == UNREACHABLE) {
+                    distances[neighbour] = distances[id] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        return new JamDistanceTable(codec, ids, Arrays.copyOf(states, size),
+                Arrays.copyOf(firstMove, size + 1),
+                Arrays.copyOf(neighbours, moves), distances);
+    }
+
+    /**
+     * @param config board to look up
+     * @return number of the board, or -1 if it is not in the cluster
+     */
+    private int idOf(JamConfig config) {
+        if (config.getBoard() != board && !config.getBoard().equals(board)) {
+            return -1;
+        }
+        return (int) ids.get(codec.encode(config));
+    }
+
+    /**
+     * @param config board to check
+     * @return true if the board is in the cluster
+     */
+    public boolean contains(JamConfig config) {
+        return idOf(config) >= 0;
+    }
+
+    /**
+     * @param config board to look up
+     * @return number of moves from the board to the nearest goal,
+     * UNREACHABLE if it can not reach one, or NOT_FOUND if it is not in
+     * the cluster
+     */
+    public int distance(JamConfig config) {
+        int id = idOf(config);
+        return id < 0 ? NOT_FOUND : distances[id];
+    }
+
+    /**
+     * @param config board to look up
+     * @return the first successor of the board that is one move closer to
+     * the nearest goal, or null if it is a goal, can not reach one or is
+     * not in the cluster
+     */
+    public JamConfig next(JamConfig config) {
+        int id = idOf(config);
+        if (id < 0 || distances[id] <= 0) {
+            return null;
+        }
+        for (int i = firstMove[id]; i < firstMove[id + 1]; i++) {
+            if (distances[neighbours[i]] == distances[id] - 1) {
+                return codec.decode(states[neighbours[i]]);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of boards in the cluster
+     */
+    public int size() {
+        return states.length;
+    }
+}
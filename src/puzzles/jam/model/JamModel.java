@@ -0,0 +1,291 @@
+package puzzles.jam.model;
+
+import puzzles.common.JamPuzzle;
+import puzzles.common.Observer;
+import puzzles.common.PuzzleLoader;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+import puzzles.common.solver.Solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Model of the jam game. Contains the configuration of the game and all of
+ * the available commands. Notifies the view when a change is made. When a
+ * puzzle is loaded, the distance to the goal of every board of its cluster
+ * is worked out at once, see JamDistanceTable, so hints and the number of
+ * moves left are lookups. Loading a board of the same cluster again, as a
+ * reset does, keeps the table. A board whose cluster is too big for the table
+ * is searched for a hint every time one is asked for, as HoppersModel does.
+ */
+public class JamModel {
+    /** most boards the cluster of a loaded board may have for a table */
+    private static final int TABLE_BOARDS = 5_000_000;
+
+    /** limits on the search for a hint without a table */
+    private static final SearchBudget HINT_BUDGET =
+            SearchBudget.unlimited().withTime(Duration.ofSeconds(30));
+
+    /** the collection of observers of this model */
+    private final List<Observer<JamModel, JamClientData>> observers = new LinkedList<>();
+
+    /** the current configuration */
+    private JamConfig currentConfig;
+
+    /** distance to the goal of every board of the cluster, null if the
+     * cluster was too big */
+    private JamDistanceTable table;
+
+    /** the name of the file that has the starting configuration */
+    private String filename;
+
+    /** indicates if a car is selected and which space of it was selected */
+    private boolean isSelected = false;
+    private int selectedRow;
+    private int selectedCol;
+
+    /**
+     * Create a new instance of the model for the jam puzzle
+     *
+     * @param filename name of file to read
+     * @param puzzle puzzle read from the file
+     * @throws IllegalArgumentException if the cars of the puzzle do not
+     * fit on its board
+     */
+    public JamModel(String filename, JamPuzzle puzzle) {
+        this.filename = filename;
+        this.currentConfig = new JamConfig(puzzle);
+        this.table = buildTable(this.currentConfig);
+    }
+
+    /**
+     * The view calls this to add itself as an observer.
+     *
+     * @param observer the view
+     */
+    public void addObserver(Observer<JamModel, JamClientData> observer) {
+        this.observers.add(observer);
+    }
+
+    /**
+     * The model's state has changed, so inform the view via the update
+     * method
+     */
+    private void alertObservers(JamClientData data) {
+        for (var observer : observers) {
+            observer.update(this, data);
+        }
+    }
+
+    /**
+     * @return the distance table of the cluster of the board, or null if
+     * the cluster is too big or its boards can not be packed
+     */
+    private static JamDistanceTable buildTable(JamConfig start) {
+        try {
+            return JamDistanceTable.build(start, TABLE_BOARDS);
+        }
+        catch (SearchAbortedException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * If the puzzle is solvable, the puzzle advances to the next step in
+     * the solution with an indication that it was successful. Otherwise
+     * the puzzle remains in the same state and indicates there is no
+     * solution. The step is read from the distance table when there is
+     * one, and searched for otherwise.
+     */
+    public synchronized void hint() {
+        if (this.currentConfig.isGoal()) {
+            alertObservers(new JamClientData("Already solved!"));
+            return;
+        }
+        JamConfig next;
+        if (this.table != null && this.table.contains(this.currentConfig)) {
+            next = this.table.next(this.currentConfig);
+        }
+        else {
+            try {
+                List<Configuration> solution =
+                        new Solver().doBFS(this.currentConfig, HINT_BUDGET);
+                next = solution.isEmpty() ? null : (JamConfig) solution.get(1);
+            }
+            catch (SearchAbortedException e) {
+                alertObservers(new JamClientData("No hint: " + e.getMessage()));
+                return;
+            }
+        }
+        if (next == null) {
+            alertObservers(new JamClientData("No solution!"));
+        }
+        else {
+            this.isSelected = false;
+            this.currentConfig = next;
+            alertObservers(new JamClientData("Next step!"));
+        }
+    }
+
+    /**
+     * The user will provide the path and name of a puzzle file for the
+     * game to load. If the file is readable the new puzzle file is loaded
+     * and displayed, along with an indication of success. If the file cannot
+     * be read, an error message is displayed and the previous puzzle
+     * file remains loaded.
+     *
+     * @param filename name of file to load in
+     */
+    public synchronized void load(String filename) {
+        try {
+            //Read the file specified from input
+            JamPuzzle puzzle = PuzzleLoader.loadJam(filename);
+            JamConfig config = new JamConfig(puzzle);
+
+            this.filename = filename;
+            this.currentConfig = config;
+            if (this.table == null || !this.table.contains(config)) {
+                this.table = buildTable(config);
+            }
+            this.isSelected = false;
+            alertObservers(new JamClientData("Loaded: " +
+                    Path.of(filename).getFileName()));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            alertObservers(new JamClientData("Failed to load: " + filename));
+        }
+    }
+
+    /**
+     * Selection works in two parts.
+     * For the first selection, the user selects a cell on the board with
+     * the intention of selecting the car at that location. If there is a
+     * car there, there is an indication and selection advances to the
+     * second part. Otherwise an error message is displayed and selection
+     * ends.
+     *
+     * For the second selection, the user selects an empty cell in the row
+     * or column the car moves along. If the car can slide there without
+     * passing another car, it moves until it covers that cell and the
+     * board is updated. Otherwise an error message is displayed.
+     *
+     * @param row selected row on the board
+     * @param col selected col on the board
+     */
+    public synchronized void select(int row, int col) {
+        if (this.currentConfig.isGoal()) {
+            alertObservers(new JamClientData("Already solved!"));
+        }
+        //No car is already selected and player selects a space with a car
+        else if (!this.isSelected) {
+            if (inBounds(row, col) && this.currentConfig.carAt(row, col) >= 0) {
+                this.isSelected = true;
+                this.selectedRow = row;
+                this.selectedCol = col;
+                alertObservers(new JamClientData(
+                        "Selected (" + row + ", " + col + ")"));
+            }
+            else {
+                alertObservers(new JamClientData(
+                        "No car at (" + row + ", " + col + ")"));
+            }
+        }
+        else {
+            this.isSelected = false;
+            JamConfig moved = slideTo(row, col);
+            String move = " (" + this.selectedRow + ", " + this.selectedCol +
+                    ")  to (" + row + ", " + col + ")";
+            //Car is selected and move is valid
+            if (moved != null) {
+                this.currentConfig = moved;
+                alertObservers(new JamClientData("Moved from" + move));
+            }
+            //Selection is not valid
+            else {
+                alertObservers(new JamClientData("Can't move from" + move));
+            }
+        }
+    }
+
+    /**
+     * @return true if the cell is on the board
+     */
+    private boolean inBounds(int row, int col) {
+        JamBoard board = this.currentConfig.getBoard();
+        return row >= 0 && row < board.getNumRows() &&
+                col >= 0 && col < board.getNumCols();
+    }
+
+    /**
+     * Slides the selected car so it covers the given cell
+     *
+     * @param row row of the cell
+     * @param col column of the cell
+     * @return the board after the move, or null if the cell is not in the
+     * line of the car or another car is in the way
+     */
+    private JamConfig slideTo(int row, int col) {
+        int car = this.currentConfig.carAt(this.selectedRow, this.selectedCol);
+        if (car < 0 || !inBounds(row, col)) {
+            return null;
+        }
+        JamBoard board = this.currentConfig.getBoard();
+        int offset = this.currentConfig.getOffset(car);
+        int along;
+        if (board.isVertical(car) && col == board.colOf(car, offset)) {
+            along = row;
+        }
+        else if (!board.isVertical(car) && row == board.rowOf(car, offset)) {
+            along = col;
+        }
+        else {
+            return null;
+        }
+        if (along < offset) {
+            return this.currentConfig.slide(car, along);
+        }
+        if (along >= offset + board.getLength(car)) {
+            return this.currentConfig.slide(car, along - board.getLength(car) + 1);
+        }
+        return null;
+    }
+
+    /**
+     * User exits the game and the program ends
+     */
+    public void quit() {
+        System.exit(0);
+    }
+
+    /**
+     * The previously loaded file is loaded and the board is reset to its
+     * original configuration.
+     */
+    public synchronized void reset() {
+        load(this.filename);
+        alertObservers(new JamClientData("Puzzle reset!"));
+    }
+
+    /**
+     * @return number of moves from the current board to the goal, or -1
+     * if it can not be solved or there is no distance table
+     */
+    public synchronized int getMovesLeft() {
+        if (this.table == null) {
+            return -1;
+        }
+        return Math.max(this.table.distance(this.currentConfig), -1);
+    }
+
+    /**
+     * @return current configuration of JamConfig
+     */
+    public synchronized JamConfig getCurrentConfig() {
+        return currentConfig;
+    }
+}
@@ -0,0 +1,140 @@
+package puzzles.jam.ptui;
+
+import puzzles.common.JamPuzzle;
+import puzzles.common.Observer;
+import puzzles.common.PuzzleLoader;
+import puzzles.jam.model.JamClientData;
+import puzzles.jam.model.JamModel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Scanner;
+
+/**
+ * Class definition for the text view and controller
+ */
+public class JamPTUI implements Observer<JamModel, JamClientData> {
+    /** The model for the view and the controller */
+    private JamModel model;
+
+    /**
+     * Constructs the PTUI
+     *
+     * @param filename name of file that contains dimensions of
+     *                 the board and the cars on it
+     * @param puzzle puzzle read from the file
+     */
+    public JamPTUI(String filename, JamPuzzle puzzle) {
+        this.model = new JamModel(filename, puzzle);
+        displayBoard(this.model.getCurrentConfig().getGrid());
+        displayHelp();
+        initView();
+    }
+
+    /**
+     * Repeatedly read commands from user
+     */
+    private void run() {
+        Scanner in = new Scanner(System.in);
+        for (; ; ) {
+            System.out.print("> ");
+            String[] args = in.nextLine().split(" ");
+            if (args.length > 0) {
+                if (args[0].equals("h")) {
+                    this.model.hint();
+                } else if (args[0].equals("l") && args.length > 1) {
+                    this.model.load(args[1]);
+                } else if (args[0].equals("s") && args.length > 2) {
+                    this.model.select(Integer.parseInt(args[1]),
+                            Integer.parseInt(args[2]));
+                } else if (args[0].equals("q")) {
+                    this.model.quit();
+                } else if (args[0].equals("r")) {
+                    this.model.reset();
+                } else {
+                    displayHelp();
+                }
+
+            }
+        }
+    }
+
+    /**
+     * Initializes the view
+     */
+    public void initView() {
+        this.model.addObserver(this);
+        update(this.model, null);
+    }
+
+    /**
+     * Prints the display of the board to standard output
+     *
+     * @param board 2d board array to display in output
+     */
+    private void displayBoard(String[][] board) {
+        System.out.print("  ");
+        for (int i = 0; i < board[0].length; i++) {
+            System.out.print(" " + i);
+        }
+        System.out.print(" \n  ");
+        for (int i = 0; i < board[0].length; i++) {
+            System.out.print("--");
+        }
+        System.out.println();
+
+        for (int row = 0; row < board.length; row++) {
+            System.out.print(row + "|");
+            for (int col = 0; col < board[0].length; col++) {
+                System.out.print(" " + board[row][col]);
+            }
+            System.out.println(" ");
+        }
+        System.out.println();
+    }
+
+    /**
+     * Prints out all available commands for the game
+     */
+    private void displayHelp() {
+        System.out.println("h(int)              -- hint next move");
+        System.out.println("l(oad) filename     -- load new puzzle file");
+        System.out.println("s(elect) r c        -- select cell at r, c");
+        System.out.println("q(uit)              -- quit the game");
+        System.out.println("r(eset)             -- reset the current game");
+    }
+
+    @Override
+    public void update(JamModel model, JamClientData data) {
+        if (data != null) {
+            System.out.println(data.getMessage());
+            displayBoard(model.getCurrentConfig().getGrid());
+        }
+    }
+
+    /**
+     * The main method used to play the game
+     *
+     * @param args 1 argument which is the name of the file used
+     *             to build game board
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java JamPTUI filename");
+        }
+        else {
+            try {
+                //Read the file specified from input
+                JamPuzzle puzzle = PuzzleLoader.loadJam(args[0]);
+
+                System.out.println("Loaded: " + Path.of(args[0]).getFileName());
+
+                JamPTUI ptui = new JamPTUI(args[0], puzzle);
+                ptui.run();
+            }
+            catch (IOException | IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+}
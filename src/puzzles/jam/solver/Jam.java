@@ -0,0 +1,229 @@
+package puzzles.jam.solver;
+
+import puzzles.common.JamPuzzle;
+import puzzles.common.PuzzleLoader;
+import puzzles.common.solver.ArrayFrontier;
+import puzzles.common.solver.BatchSolver;
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.ExternalSolver;
+import puzzles.common.solver.PackedVisitedStore;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+import puzzles.common.solver.Solver;
+import puzzles.jam.model.JamCodec;
+import puzzles.jam.model.JamConfig;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Simulates the jam puzzle. Uses the Solver to go through all possible
+ * configurations of the puzzle and attempts to find a solution. Prints out
+ * the file, the starting board, number of total configurations, number of
+ * unique configurations, and the solution if there is one. In batch mode
+ * every puzzle of a directory is solved at once and each solution is
+ * written to a file in the format of the stored outputs. With --external
+ * the layers of the search are kept in files instead of in memory, for
+ * boards whose visited set does not fit in the heap.
+ */
+public class Jam {
+    /**
+     * Makes a solver that keeps visited configurations packed into longs
+     * when the cars of the puzzle fit, and in a HashMap otherwise
+     *
+     * @param start starting configuration of the puzzle
+     * @return solver for the puzzle
+     */
+    public static Solver makeSolver(JamConfig start) {
+        try {
+            JamCodec codec = new JamCodec(start);
+            return new Solver(ArrayFrontier::new,
+                    () -> new PackedVisitedStore<>(codec));
+        }
+        catch (IllegalArgumentException e) {
+            return new Solver();
+        }
+    }
+
+    /**
+     * The main method that runs the puzzle and outputs the solution
+     * if there is one
+     *
+     * @param args the first and only argument should be the name of a
+     *             file that has the dimensions of the board and the cars
+     *             on it, or --batch followed by a directory of puzzle
+     *             files, the directory to write the solutions to and
+     *             optionally the number of threads, or --external followed
+     *             by a directory for the layer files and the file name
+     */
+    public static void main(String[] args) {
+        run(args, System.out);
+    }
+
+    /**
+     * Runs the puzzle and writes the solution, if there is one, the same
+     * way main prints it
+     *
+     * @param args the first and only argument should be the name of a
+     *             file that has the dimensions of the board and the cars
+     *             on it, or --batch followed by a directory of puzzle
+     *             files, the directory to write the solutions to and
+     *             optionally the number of threads, or --external followed
+     *             by a directory for the layer files and the file name
+     * @param out stream to write the output to
+     */
+    public static void run(String[] args, PrintStream out) {
+        if (args.length >= 3 && args.length <= 4 && args[0].equals("--batch")) {
+            batch(args, out);
+        }
+        else if (args.length == 3 && args[0].equals("--external")) {
+            external(args, out);
+        }
+        else if (args.length != 1) {
+            out.println("Usage: java Jam filename");
+            out.println("       java Jam --batch directory " +
+                    "outputDirectory [threads]");
+            out.println("       java Jam --external layerDirectory filename");
+        }
+        else {
+            try {
+                //Read the file specified from input
+                run(args[0], PuzzleLoader.loadJam(args[0]), out);
+            }
+            catch (IOException e) {out.println(e.getMessage());}
+        }
+    }
+
+    /**
+     * Solves a puzzle that has already been read and writes the solution,
+     * if there is one, the same way main prints it
+     *
+     * @param file name of the file the puzzle was read from
+     * @param puzzle the puzzle
+     * @param out stream to write the output to
+     */
+    public static void run(String file, JamPuzzle puzzle, PrintStream out) {
+        run(file, puzzle, SearchBudget.unlimited(), out);
+    }
+
+    /**
+     * Solves a puzzle that has already been read like run, but gives up
+     * if the search goes over the budget
+     *
+     * @param file name of the file the puzzle was read from
+     * @param puzzle the puzzle
+     * @param budget limits on the search
+     * @param out stream to write the output to
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public static void run(String file, JamPuzzle puzzle, SearchBudget budget,
+                           PrintStream out) {
+        try {
+            JamJob job = new JamJob(puzzle);
+
+            //Make a new solver and get path if there is one
+            Solver jamSolver = makeSolver(job.start).withBudget(budget);
+            List<Configuration> solution = job.solve(jamSolver);
+
+            //Print output
+            out.println(BatchSolver.report(Path.of(file), job,
+                    jamSolver, solution));
+        }
+        catch (IllegalArgumentException e) {out.println(e.getMessage());}
+    }
+
+    /**
+     * Solves a puzzle with the layers of the search kept on disk and
+     * writes the solution, if there is one, the same way main prints it
+     *
+     * @param args --external, the directory to write the layer files to
+     *             and the name of the puzzle file
+     * @param out stream to write the output to
+     */
+    private static void external(String[] args, PrintStream out) {
+        try {
+            //Read the file specified from input
+            JamJob job = new JamJob(PuzzleLoader.loadJam(args[2]));
+
+            //Search with the layers in files and get path if there is one
+            //Every slide of a car can be slid back
+            ExternalSolver<JamConfig> jamSolver = new ExternalSolver<>(
+                    new JamCodec(job.start), Path.of(args[1]), true);
+            List<Configuration> solution = jamSolver.solve(job.start);
+
+            //Print output
+            out.println(BatchSolver.report(Path.of(args[2]), job,
+                    jamSolver.getTotalConfigs(), jamSolver.getUniqueConfigs(),
+                    solution));
+        }
+        catch (IOException | IllegalArgumentException e) {
+            out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Solves every puzzle of a directory and writes the solutions
+     *
+     * @param args --batch, the directory of puzzle files, the directory to
+     *             write the solutions to and optionally the number of threads
+     * @param out stream to write the result to
+     */
+    private static void batch(String[] args, PrintStream out) {
+        int threads = args.length == 4 ? Integer.parseInt(args[3]) :
+                Runtime.getRuntime().availableProcessors();
+        BatchSolver solver = new BatchSolver(
+                file -> new JamJob(PuzzleLoader.loadJam(file)), threads);
+        try {
+            long start = System.currentTimeMillis();
+            int written = solver.solveDirectory(Path.of(args[1]), Path.of(args[2]));
+            out.println("Solved " + written + " puzzles in " +
+                    (System.currentTimeMillis() - start) + " ms");
+        }
+        catch (IOException e) {out.println(e.getMessage());}
+    }
+
+    /**
+     * Jam puzzle of a batch
+     */
+    private static class JamJob implements BatchSolver.Job {
+        private final JamConfig start;
+
+        /**
+         * @throws IllegalArgumentException if the cars of the puzzle do
+         * not fit on its board
+         */
+        private JamJob(JamPuzzle puzzle) {
+            this.start = new JamConfig(puzzle);
+        }
+
+        @Override
+        public String describe() {
+            return start.toString();
+        }
+
+        @Override
+        public List<Configuration> solve(Solver solver) {
+            return solver.doBFS(start);
+        }
+
+        /**
+         * @return the log of the number of places every car could be on
+         * its line, which is how large the search can get
+         */
+        @Override
+        public double getDifficulty() {
+            double placements = 0;
+            for (int car = 0; car < start.getBoard().getNumCars(); car++) {
+                placements += Math.log(start.getBoard().getMaxOffset(car) + 1);
+            }
+            return placements;
+        }
+
+        @Override
+        public String format(Configuration step) {
+            return step.toString();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package puzzles.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A puzzle for the solver service, in the form its main method reads it.
+ * Clock and water puzzles are their list of arguments, hoppers and jam
+ * puzzles the contents of their board file and the name of that file.
+ */
+public class SolveRequest {
+    private final String puzzle;
+    private final String[] args;
+    private final String file;
+    private final byte[] board;
+
+    /**
+     * @param puzzle name of the puzzle
+     * @param args arguments of the puzzle, empty for a board file
+     * @param file name of the board file, null for arguments
+     * @param board contents of the board file, null for arguments
+     */
+    private SolveRequest(String puzzle, String[] args, String file, byte[] board) {
+        this.puzzle = puzzle;
+        this.args = args;
+        this.file = file;
+        this.board = board;
+    }
+
+    /**
+     * @param puzzle name of the puzzle, clock or water
+     * @param args the arguments main is run with
+     * @return request for the puzzle the arguments describe
+     */
+    public static SolveRequest ofArgs(String puzzle, String[] args) {
+        return new SolveRequest(puzzle, args.clone(), null, null);
+    }
+
+    /**
+     * @param puzzle name of the puzzle, hoppers or jam
+     * @param file name of the board file, printed in the output
+     * @param board contents of the board file
+     * @return request for the puzzle on the board
+     */
+    public static SolveRequest ofBoard(String puzzle, String file, byte[] board) {
+        return new SolveRequest(puzzle, new String[0], file, board.clone());
+    }
+
+    /**
+     * @return name of the puzzle
+     */
+    public String getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * @return arguments of the puzzle
+     */
+    public String[] getArgs() {
+        return args.clone();
+    }
+
+    /**
+     * @return name of the board file
+     */
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * @return contents of the board file
+     */
+    public byte[] getBoard() {
+        return board;
+    }
+
+    /**
+     * @return string that is the same for two requests exactly when their
+     * outputs are, since the file name is part of the output
+     */
+    public String key() {
+        StringBuilder key = new StringBuilder(puzzle).append('\n');
+        if (board == null) {
+            key.append(String.join(" ", args));
+        }
+        else {
+            key.append(file).append('\n')
+                    .append(new String(board, StandardCharsets.ISO_8859_1));
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return puzzle + " " + (board == null ? Arrays.toString(args) : file);
+    }
+}
@@ -0,0 +1,239 @@
+package puzzles.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the solver service over HTTP on localhost, so a pipeline that
+ * solves many small puzzles can send them to one warmed up JVM instead of
+ * starting a new one for each.
+ *
+ * POST /solve/clock and /solve/water take the arguments of Clock and Water
+ * as the body, separated by spaces. POST /solve/hoppers and /solve/jam take
+ * the contents of a board file as the body, and the name of the file as the
+ * file query parameter. If the body is empty the board is read from that
+ * file instead, which has to be in the data directory. The response is
+ * what main prints for the puzzle, or 503 if its search ran out of time.
+ * GET /stats returns the counts of the service.
+ */
+public class SolverServer {
+    /** port the server listens on when none is given */
+    private static final int DEFAULT_PORT = 8642;
+
+    /** number of outputs the service caches */
+    private static final int CACHE_SIZE = 256;
+
+    /** seconds each solve may take when no limit is given */
+    private static final int DEFAULT_SECONDS = 60;
+
+    /** the only directory boards are read from when a request has no body */
+    private static final Path BOARD_DIRECTORY = Path.of("data");
+
+    private final HttpServer server;
+    private final SolverService service;
+
+    /**
+     * Creates a server on the loopback address. Requests are read on a
+     * couple of threads of their own; they only hand the puzzle to the
+     * service and reply once its output is ready.
+     *
+     * @param port port to listen on
+     * @param service service that solves the puzzles
+     * @throws IOException if the port can not be bound
+     */
+    public SolverServer(int port, SolverService service) throws IOException {
+        this.service = service;
+        this.server = HttpServer.create(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), port), 0);
+        this.server.createContext("/solve/", this::solve);
+        this.server.createContext("/stats", exchange ->
+                reply(exchange, 200, service.stats()));
+        this.server.setExecutor(Executors.newFixedThreadPool(2));
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and stops the service
+     */
+    public void stop() {
+        server.stop(0);
+        service.shutdown();
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Hands a puzzle to the service. The reply is sent from whichever
+     * thread finishes the solve, so no thread waits on it.
+     */
+    private void solve(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            reply(exchange, 405, "Use POST\n");
+            return;
+        }
+        String puzzle = exchange.getRequestURI().getPath()
+                .substring("/solve/".length());
+        if (!SolverService.supports(puzzle)) {
+            reply(exchange, 404, "Unknown puzzle: " + puzzle + "\n");
+            return;
+        }
+
+        SolveRequest request;
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (puzzle.equals("clock") || puzzle.equals("water")) {
+            String args = new String(body, StandardCharsets.UTF_8).trim();
+            request = SolveRequest.ofArgs(puzzle,
+                    args.isEmpty() ? new String[0] : args.split("\\s+"));
+        }
+        else {
+            String file = query(exchange, "file");
+            if (file == null) {
+                reply(exchange, 400, "Missing file parameter\n");
+                return;
+            }
+            if (body.length == 0) {
+                try {
+                    Path path = boardPath(file);
+                    if (path == null) {
+                        reply(exchange, 403, "Boards are only read from " +
+                                BOARD_DIRECTORY + "\n");
+                        return;
+                    }
+                    body = Files.readAllBytes(path);
+                }
+                catch (IOException | InvalidPathException e) {
+                    reply(exchange, 400, "Can't read " + file + "\n");
+                    return;
+                }
+            }
+            request = SolveRequest.ofBoard(puzzle, file, body);
+        }
+
+        service.solve(request).whenComplete((output, error) -> {
+            try {
+                if (error == null) {
+                    reply(exchange, 200, output);
+                }
+                else {
+                    Throwable cause = error instanceof CompletionException ?
+                            error.getCause() : error;
+                    //A board that can't be read is the client's fault
+                    if (cause instanceof UncheckedIOException) {
+                        reply(exchange, 400, cause.getCause().getMessage() + "\n");
+                    }
+                    else if (cause instanceof SearchAbortedException) {
+                        reply(exchange, 503, cause.getMessage() + "\n");
+                    }
+                    else {
+                        reply(exchange, 500, cause + "\n");
+                    }
+                }
+            }
+            catch (IOException e) {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * @param file name of a board file
+     * @return the file, or null if it is not in the board directory once
+     * its links and parent directories are followed
+     * @throws IOException if the file does not exist
+     */
+    private static Path boardPath(String file) throws IOException {
+        Path path = Path.of(file).toRealPath();
+        if (!path.startsWith(BOARD_DIRECTORY.toRealPath())) {
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * @return the decoded value of a query parameter, or null if the
+     * request does not have it
+     */
+    private static String query(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair: query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1),
+                        StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sends the text as the whole response and closes the exchange
+     */
+    private static void reply(HttpExchange exchange, int status, String text)
+            throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Runs the server until the JVM is stopped
+     *
+     * @param args optionally the port to listen on, then optionally the
+     *             number of puzzles solved at the same time, then
+     *             optionally the seconds each solve may take
+     */
+    public static void main(String[] args) {
+        if (args.length > 3) {
+            System.out.println("Usage: java SolverServer [port] [threads] [seconds]");
+            return;
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) :
+                Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) :
+                DEFAULT_SECONDS;
+        try {
+            SolverServer server = new SolverServer(port,
+                    new SolverService(threads, CACHE_SIZE, SearchBudget
+                            .unlimited().withTime(Duration.ofSeconds(seconds))));
+            server.start();
+            System.out.println("Solving on http://localhost:" +
+                    server.getPort() + "/solve/ with " + threads + " threads");
+        }
+        catch (IOException e) {System.out.println(e.getMessage());}
+    }
+}
@@ -0,0 +1,236 @@
+package puzzles.server;
+
+import puzzles.clock.Clock;
+import puzzles.common.PuzzleLoader;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+import puzzles.hoppers.solver.Hoppers;
+import puzzles.jam.solver.Jam;
+import puzzles.water.Water;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves puzzles for the solver server, in the JVM it is running in, so
+ * only the first puzzle of each kind pays for class loading and the JIT.
+ * The output of a puzzle is exactly what its main method prints. Puzzles
+ * are solved on a fixed pool with one thread per core, and nothing else
+ * blocks while they run: the caller gets a future. A request for a puzzle
+ * that is already being solved gets the future of that solve instead of
+ * starting another one, and the outputs of the most recently asked for
+ * puzzles are cached. Every search is given the same budget, so a puzzle
+ * too large to solve gives up its thread instead of holding it forever.
+ */
+public class SolverService {
+    /** puzzles that can be solved, each a main method that prints to a stream */
+    private static final Map<String, Runner> RUNNERS = Map.of(
+            "clock", SolverService::runClock,
+            "water", SolverService::runWater,
+            "hoppers", SolverService::runHoppers,
+            "jam", SolverService::runJam);
+
+    /** runs the solves */
+    private final ExecutorService pool;
+
+    /** limits on the search of each solve */
+    private final SearchBudget budget;
+
+    /** outputs of finished solves, least recently used first */
+    private final Map<String, String> cache;
+
+    /** solves that have not finished yet, by the key of their request */
+    private final Map<String, CompletableFuture<String>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder aborted = new LongAdder();
+
+    /**
+     * Solves a puzzle and writes its output
+     */
+    @FunctionalInterface
+    private interface Runner {
+        /**
+         * @param request the puzzle
+         * @param budget limits on the search
+         * @param out stream to write the output to
+         * @throws IOException if the board of the request is not a puzzle
+         * @throws SearchAbortedException if the budget ran out first
+         */
+        void run(SolveRequest request, SearchBudget budget, PrintStream out)
+                throws IOException;
+    }
+
+    /**
+     * Creates a new service
+     *
+     * @param threads number of puzzles solved at the same time
+     * @param cacheSize number of outputs kept after their solve is done
+     * @param budget limits on the search of each solve
+     */
+    public SolverService(int threads, int cacheSize, SearchBudget budget) {
+        this.budget = budget;
+        AtomicInteger count = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(threads, 1), task -> {
+            Thread thread = new Thread(task, "solver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @param puzzle name of a puzzle
+     * @return true if the service can solve the puzzle
+     */
+    public static boolean supports(String puzzle) {
+        return RUNNERS.containsKey(puzzle);
+    }
+
+    /**
+     * Starts solving the request, unless its output is cached or the same
+     * request is being solved already, and returns right away
+     *
+     * @param request puzzle to solve
+     * @return future output of the puzzle, the same as its main method
+     * prints, or that completes with a SearchAbortedException if the
+     * budget runs out first
+     * @throws IllegalArgumentException if the puzzle is not supported
+     */
+    public CompletableFuture<String> solve(SolveRequest request) {
+        Runner runner = RUNNERS.get(request.getPuzzle());
+        if (runner == null) {
+            throw new IllegalArgumentException("Unknown puzzle: " +
+                    request.getPuzzle());
+        }
+        requests.increment();
+        String key = request.key();
+        synchronized (cache) {
+            String output = cache.get(key);
+            if (output != null) {
+                cacheHits.increment();
+                return CompletableFuture.completedFuture(output);
+            }
+        }
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+        //The solve of the same request may have finished since the cache
+        //was checked
+        synchronized (cache) {
+            String output = cache.get(key);
+            if (output != null) {
+                inFlight.remove(key, created);
+                cacheHits.increment();
+                created.complete(output);
+                return created;
+            }
+        }
+        pool.execute(() -> {
+            try {
+                String output = capture(runner, request, budget);
+                synchronized (cache) {
+                    cache.put(key, output);
+                }
+                solved.increment();
+                created.complete(output);
+            }
+            catch (Throwable e) {
+                if (e instanceof SearchAbortedException) {
+                    aborted.increment();
+                }
+                created.completeExceptionally(e);
+            }
+            finally {
+                inFlight.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * @return the output the runner writes for the request
+     */
+    private static String capture(Runner runner, SolveRequest request,
+                                  SearchBudget budget) {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(captured, false,
+                StandardCharsets.UTF_8)) {
+            runner.run(request, budget, out);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void runClock(SolveRequest request, SearchBudget budget,
+                                 PrintStream out) {
+        Clock.run(request.getArgs(), budget, out);
+    }
+
+    private static void runWater(SolveRequest request, SearchBudget budget,
+                                 PrintStream out) {
+        Water.run(request.getArgs(), budget, out);
+    }
+
+    private static void runHoppers(SolveRequest request, SearchBudget budget,
+                                   PrintStream out) throws IOException {
+        Hoppers.run(request.getFile(), PuzzleLoader.parseHoppers(
+                request.getBoard(), request.getFile()), false, budget, out);
+    }
+
+    private static void runJam(SolveRequest request, SearchBudget budget,
+                               PrintStream out) throws IOException {
+        Jam.run(request.getFile(), PuzzleLoader.parseJam(
+                request.getBoard(), request.getFile()), budget, out);
+    }
+
+    /**
+     * @return counts of the requests handled so far, one per line
+     */
+    public String stats() {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return "Requests: " + requests.sum() + "\n" +
+                "Cache hits: " + cacheHits.sum() + "\n" +
+                "Coalesced: " + coalesced.sum() + "\n" +
+                "Solved: " + solved.sum() + "\n" +
+                "Aborted: " + aborted.sum() + "\n" +
+                "In flight: " + inFlight.size() + "\n" +
+                "Cached: " + cached + "\n";
+    }
+
+    /**
+     * Stops taking new solves. Solves already running are left to finish.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
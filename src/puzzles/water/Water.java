@@ -1,18 +1,47 @@
 package puzzles.water;
 
+import puzzles.common.solver.ArrayFrontier;
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.PackedVisitedStore;
+import puzzles.common.solver.Solution;
 import puzzles.common.solver.Solver;
+import puzzles.common.solver.SearchAbortedException;
+import puzzles.common.solver.SearchBudget;
+import puzzles.common.solver.StrategyRegistry;
 
-import java.util.ArrayList;
+import java.io.PrintStream;
 import java.util.List;
 
 /**
  * Simulates the water puzzle. Uses the Solver to go through all possible
  * configurations of the puzzle and attempts to find a solution. Prints out
  * starting arguments, number of total configurations, number of unique
- * configurations, and the solution if there is one
+ * configurations, and the solution if there is one. Puzzles that can be
+ * answered by arithmetic are not searched, the StrategyRegistry hands
+ * them to the WaterStrategy instead, see WaterAnalysis. Those only build
+ * the configurations on their path, so for them both the total and the
+ * unique configurations printed are the length of the path, or 1 for the
+ * start if there is no solution, instead of what a search would count.
  */
 public class Water {
+    /**
+     * Makes a solver that keeps visited configurations packed into longs
+     * when the buckets of the puzzle fit, and in a HashMap otherwise
+     *
+     * @param start starting configuration of the puzzle
+     * @return solver for the puzzle
+     */
+    public static Solver makeSolver(WaterConfig start) {
+        try {
+            WaterCodec codec = new WaterCodec(start);
+            return new Solver(ArrayFrontier::new,
+                    () -> new PackedVisitedStore<>(codec));
+        }
+        catch (IllegalArgumentException e) {
+            return new Solver();
+        }
+    }
+
     /**
      * The main method that runs the puzzle and outputs the solution
      * if there is one
@@ -23,44 +52,73 @@ public class Water {
      *             with their maximum capacity.
      */
     public static void main(String[] args) {
+        run(args, System.out);
+    }
+
+    /**
+     * Runs the puzzle and writes the solution, if there is one, the same
+     * way main prints it
+     *
+     * @param args Must be at least 3 integer arguments. The 1st is the
+     *             desired amount of water you want in a bucket, the
+     *             remaining integer arguments represent the buckets
+     *             with their maximum capacity.
+     * @param out stream to write the output to
+     */
+    public static void run(String[] args, PrintStream out) {
+        run(args, SearchBudget.unlimited(), out);
+    }
+
+    /**
+     * Runs the puzzle like run, but gives up if the search goes over the
+     * budget
+     *
+     * @param args Must be at least 3 integer arguments. The 1st is the
+     *             desired amount of water you want in a bucket, the
+     *             remaining integer arguments represent the buckets
+     *             with their maximum capacity.
+     * @param budget limits on the search
+     * @param out stream to write the output to
+     * @throws SearchAbortedException if the budget ran out first
+     */
+    public static void run(String[] args, SearchBudget budget, PrintStream out) {
         if (args.length < 2) {
-            System.out.println(("Usage: java Water amount bucket1 bucket2 ..."));
+            out.println(("Usage: java Water amount bucket1 bucket2 ..."));
         }
         else {
             //Gets desired amount and bucket capacities from arguments
-            int desiredAmount = Integer.valueOf(args[0]);
-            ArrayList<Integer> bucketCapacities = new ArrayList<>();
+            int desiredAmount = Integer.parseInt(args[0]);
+            int[] bucketCapacities = new int[args.length - 1];
             for (int i = 1; i < args.length; i++) {
-                bucketCapacities.add(Integer.valueOf(args[i]));
-            }
-            ArrayList<Integer> bucketAmounts = new ArrayList<>();
-            for (int i: bucketCapacities) {
-                bucketAmounts.add(0);
+                bucketCapacities[i - 1] = Integer.parseInt(args[i]);
             }
 
-            //Makes a new solver and starting configuration
-            Solver waterSolver = new Solver();
-            WaterConfig start = new WaterConfig(
-                    desiredAmount, bucketCapacities, bucketAmounts);
+            //Makes starting configuration with every bucket empty
+            WaterProblem problem = new WaterProblem(desiredAmount, bucketCapacities);
+            WaterConfig start = WaterConfig.empty(problem);
 
-            //Get path if there is one
-            List<Configuration> solution = waterSolver.doBFS(start);
+            //Get path if there is one, by arithmetic when the amount can
+            //never be made or there are two buckets, and by a search
+            //otherwise
+            Solution answer = StrategyRegistry.getDefault().solve(start,
+                    makeSolver(start).withBudget(budget));
+            List<Configuration> solution = answer.getPath();
+            long totalConfigs = answer.getTotalConfigs();
+            long uniqueConfigs = answer.getUniqueConfigs();
 
             //Print output
-            System.out.println("Amount: " + start.getDesiredAmount() +
+            out.println("Amount: " + start.getDesiredAmount() +
                     ", Buckets: " + start.getBucketCapacities().toString());
-            System.out.println("Total configs: " +
-                    waterSolver.getTotalConfigs());
-            System.out.println("Unique configs: " +
-                    waterSolver.getUniqueConfigs());
+            out.println("Total configs: " + totalConfigs);
+            out.println("Unique configs: " + uniqueConfigs);
             if (!solution.isEmpty()) {
                 for (int i = 0; i < solution.size(); i++) {
-                    System.out.println("Step " + i + ": " +
+                    out.println("Step " + i + ": " +
                             solution.get(i).toString());
                 }
             }
             else {
-                System.out.println("No solution");
+                out.println("No solution");
             }
         }
     }
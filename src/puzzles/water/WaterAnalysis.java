@@ -0,0 +1,215 @@
+package puzzles.water;
+
+import puzzles.common.solver.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers water puzzles that start with every bucket empty by arithmetic
+ * instead of a search where it can. Every amount that can ever be in a
+ * bucket is a multiple of the greatest common divisor of the capacities
+ * and no larger than the largest bucket, so any other desired amount has
+ * no solution. With two buckets the shortest solution is always one of
+ * the two ways of repeatedly pouring one bucket into the other. How long
+ * each way takes is worked out from the Bezout coefficients of the two
+ * capacities, and only the shorter one is built.
+ */
+public final class WaterAnalysis {
+    private WaterAnalysis() {
+    }
+
+    /**
+     * @return greatest common divisor of the two numbers, found with the
+     * Euclidean algorithm
+     */
+    static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return Math.abs(a);
+    }
+
+    /**
+     * Finds the inverse of a number modulo another with the extended
+     * Euclidean algorithm, which keeps the Bezout coefficient of the
+     * number alongside the remainders
+     *
+     * @param a number to invert, coprime to the modulus
+     * @param modulus positive modulus
+     * @return x in [0, modulus) with a * x = 1 modulo the modulus
+     */
+    static long inverse(long a, long modulus) {
+        long remainder = modulus;
+        long next = Math.floorMod(a, modulus);
+        long coefficient = 0;
+        long nextCoefficient = 1;
+        while (next != 0) {
+            long quotient = remainder / next;
+            long swap = remainder - quotient * next;
+            remainder = next;
+            next = swap;
+            swap = coefficient - quotient * nextCoefficient;
+            coefficient = nextCoefficient;
+            nextCoefficient = swap;
+        }
+        return Math.floorMod(coefficient, modulus);
+    }
+
+    /**
+     * @param problem the puzzle, starting with every bucket empty
+     * @return true if the puzzle is answered by arithmetic: no bucket has
+     * a negative capacity, which the arithmetic does not hold for, and
+     * either the desired amount can never be made or there are two buckets
+     */
+    public static boolean canAnswer(WaterProblem problem) {
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            if (problem.getCapacity(i) < 0) {
+                return false;
+            }
+        }
+        return problem.getNumBuckets() == 2 || !isSolvable(problem);
+    }
+
+    /**
+     * @param problem the puzzle, starting with every bucket empty
+     * @return false if the desired amount can never be in a bucket, true
+     * if it can
+     */
+    public static boolean isSolvable(WaterProblem problem) {
+        int desiredAmount = problem.getDesiredAmount();
+        if (desiredAmount == 0) {
+            return true;
+        }
+        int divisor = 0;
+        int largest = 0;
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            divisor = gcd(divisor, problem.getCapacity(i));
+            largest = Math.max(largest, problem.getCapacity(i));
+        }
+        return desiredAmount > 0 && desiredAmount <= largest &&
+                desiredAmount % divisor == 0;
+    }
+
+    /**
+     * Builds the shortest solution of a two bucket puzzle. It is either
+     * pouring the first bucket into the second, filling the first whenever
+     * it is empty and dumping the second whenever it is full, or the same
+     * the other way around. Both are sized by moves and only the shorter,
+     * or the first if they are as long, is built.
+     *
+     * @param problem puzzle with two buckets, starting with both empty
+     * @return path from the empty buckets to the goal, or an empty list if
+     * there is none
+     * @throws IllegalArgumentException if the puzzle does not have two
+     * buckets
+     */
+    public static List<Configuration> solveTwoBuckets(WaterProblem problem) {
+        if (problem.getNumBuckets() != 2) {
+            throw new IllegalArgumentException(
+                    "Not a two bucket puzzle: " + problem);
+        }
+        if (!isSolvable(problem)) {
+            return new ArrayList<>();
+        }
+        //Filling a bucket that holds nothing never gets anywhere
+        if (problem.getCapacity(0) == 0) {
+            return pour(problem, 1, 0, moves(problem, 1, 0));
+        }
+        if (problem.getCapacity(1) == 0) {
+            return pour(problem, 0, 1, moves(problem, 0, 1));
+        }
+        long forward = moves(problem, 0, 1);
+        long backward = moves(problem, 1, 0);
+        return forward <= backward ? pour(problem, 0, 1, forward) :
+                pour(problem, 1, 0, backward);
+    }
+
+    /**
+     * Counts the moves of pouring one bucket into the other until either
+     * holds the desired amount, without making them. Let poured be the
+     * water that has gone from one bucket to the other. Every pour stops
+     * when it reaches a multiple of the capacity of the bucket poured
+     * from, which is then empty, or of the one poured into, which is then
+     * full, so the goal is first reached at the smallest of those where a
+     * bucket holds the desired amount:
+     * the bucket poured into holds it when poured * from = desired modulo
+     * its capacity, and the bucket poured from holds it when poured is a
+     * multiple of the other capacity and poured = -desired modulo its own.
+     * Both are solved with the inverse of one capacity modulo the other.
+     * Only called on solvable puzzles with two buckets, never pouring from
+     * a bucket that holds nothing.
+     *
+     * @param problem puzzle with two buckets
+     * @param from bucket that is filled and poured
+     * @param to bucket that is poured into and dumped
+     * @return number of moves from the empty buckets to the goal
+     */
+    static long moves(WaterProblem problem, int from, int to) {
+        long a = problem.getCapacity(from);
+        long b = problem.getCapacity(to);
+        long desired = problem.getDesiredAmount();
+        if (desired == 0) {
+            return 0;
+        }
+        if (desired == a) {
+            return 1;
+        }
+        long divisor = gcd((int) a, (int) b);
+        long poured = Long.MAX_VALUE;
+        if (desired < b) {
+            poured = inverse(a / divisor, b / divisor) * (desired / divisor) %
+                    (b / divisor) * a;
+        }
+        else if (desired == b) {
+            poured = b;
+        }
+        if (desired < a) {
+            poured = Math.min(poured, inverse(b / divisor, a / divisor) *
+                    ((a - desired) / divisor) % (a / divisor) * b);
+        }
+        //Fill before every pour from an empty bucket, dump before every
+        //pour into a full one, and one pour to each stopping point
+        long fills = (poured + a - 1) / a;
+        long dumps = (poured + b - 1) / b - 1;
+        long pours = poured / a + poured / b - poured / (a / divisor * b);
+        return fills + dumps + pours;
+    }
+
+    /**
+     * Pours one bucket into the other for the given number of moves
+     *
+     * @param problem puzzle with two buckets
+     * @param from bucket that is filled and poured
+     * @param to bucket that is poured into and dumped
+     * @param moves number of moves to the goal
+     * @return path from the empty buckets to the goal
+     */
+    private static List<Configuration> pour(WaterProblem problem,
+                                            int from, int to, long moves) {
+        List<Configuration> path = new ArrayList<>((int) Math.min(moves + 1,
+                Integer.MAX_VALUE - 8));
+        int[] amounts = new int[2];
+        WaterConfig current = new WaterConfig(problem, amounts.clone());
+        path.add(current);
+        for (long move = 0; move < moves; move++) {
+            if (amounts[from] == 0) {
+                amounts[from] = problem.getCapacity(from);
+            }
+            else if (amounts[to] == problem.getCapacity(to)) {
+                amounts[to] = 0;
+            }
+            else {
+                int amountToTransfer = Math.min(amounts[from],
+                        problem.getCapacity(to) - amounts[to]);
+                amounts[from] -= amountToTransfer;
+                amounts[to] += amountToTransfer;
+            }
+            current = new WaterConfig(problem, amounts.clone());
+            path.add(current);
+        }
+        return path;
+    }
+}
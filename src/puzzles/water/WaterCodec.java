@@ -0,0 +1,56 @@
+package puzzles.water;
+
+import puzzles.common.solver.StateCodec;
+
+/**
+ * Packs the bucket amounts of a water puzzle into a single long as a mixed
+ * radix number, where the digit for each bucket goes from 0 to its
+ * capacity. The desired amount and the capacities are the same for every
+ * configuration of a puzzle, so they are kept once in the shared problem.
+ */
+public class WaterCodec implements StateCodec<WaterConfig> {
+    private final WaterProblem problem;
+
+    /**
+     * Creates a codec for the puzzle the given configuration belongs to
+     *
+     * @param config any configuration of the puzzle
+     * @throws IllegalArgumentException if a bucket has a negative capacity
+     * or the amounts of the puzzle can not all be packed into a long
+     */
+    public WaterCodec(WaterConfig config) {
+        this.problem = config.getProblem();
+        long states = 1;
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            int capacity = problem.getCapacity(i);
+            if (capacity < 0) {
+                throw new IllegalArgumentException(
+                        "Bucket " + i + " of " + problem + " has a negative capacity");
+            }
+            if (states > Long.MAX_VALUE / (capacity + 1)) {
+                throw new IllegalArgumentException(
+                        "Buckets " + problem + " do not fit in a long");
+            }
+            states *= capacity + 1;
+        }
+    }
+
+    @Override
+    public long encode(WaterConfig config) {
+        long state = 0;
+        for (int i = problem.getNumBuckets() - 1; i >= 0; i--) {
+            state = state * (problem.getCapacity(i) + 1) + config.getAmount(i);
+        }
+        return state;
+    }
+
+    @Override
+    public WaterConfig decode(long state) {
+        int[] amounts = new int[problem.getNumBuckets()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = (int) (state % (problem.getCapacity(i) + 1));
+            state /= problem.getCapacity(i) + 1;
+        }
+        return new WaterConfig(problem, amounts);
+    }
+}
@@ -1,24 +1,63 @@
 package puzzles.water;
 
 import puzzles.common.solver.Configuration;
+import puzzles.common.solver.SuccessorSink;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
- * Single configuration of the water puzzle.
+ * Single configuration of the water puzzle. The amount in each bucket is
+ * kept in an int array, and the desired amount and capacities are kept
+ * once in the problem all configurations of the puzzle share.
  */
 public class WaterConfig implements Configuration {
-    private int desiredAmount;
-    private ArrayList<Integer> bucketCapacities;
-    private ArrayList<Integer> bucketAmounts;
+    private final WaterProblem problem;
+    private final int[] amounts;
 
+    /**
+     * Makes a configuration of a new puzzle
+     *
+     * @param desiredAmount amount of water wanted in a bucket
+     * @param bucketCapacities capacity of every bucket, copied
+     * @param bucketAmounts amount of water in every bucket, copied
+     */
     public WaterConfig(int desiredAmount,
                        ArrayList<Integer> bucketCapacities,
                        ArrayList<Integer> bucketAmounts) {
-        this.desiredAmount = desiredAmount;
-        this.bucketCapacities = bucketCapacities;
-        this.bucketAmounts = bucketAmounts;
+        this.problem = new WaterProblem(desiredAmount, bucketCapacities);
+        this.amounts = new int[bucketAmounts.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            this.amounts[i] = bucketAmounts.get(i);
+        }
+    }
+
+    /**
+     * Makes a configuration of the given puzzle
+     *
+     * @param problem the puzzle
+     * @param amounts amount of water in every bucket, which is not copied
+     *                and must not be changed afterwards
+     */
+    public WaterConfig(WaterProblem problem, int[] amounts) {
+        this.problem = problem;
+        this.amounts = amounts;
+    }
+
+    /**
+     * @param problem the puzzle
+     * @return configuration of the puzzle with every bucket empty
+     */
+    public static WaterConfig empty(WaterProblem problem) {
+        return new WaterConfig(problem, new int[problem.getNumBuckets()]);
+    }
+
+    /**
+     * @return the puzzle the configuration belongs to
+     */
+    public WaterProblem getProblem() {
+        return problem;
     }
 
     /**
@@ -26,34 +65,34 @@ public class WaterConfig implements Configuration {
      * bucket to have
      */
     public int getDesiredAmount() {
-        return desiredAmount;
+        return problem.getDesiredAmount();
     }
 
     /**
-     * @return an ArrayList of all bucket capacities
+     * @return a new ArrayList of all bucket capacities
      */
     public ArrayList<Integer> getBucketCapacities() {
-        return bucketCapacities;
+        return problem.getBucketCapacities();
     }
 
     /**
-     * @return an ArrayList of all buckets with their current amount
+     * @return a new ArrayList of all buckets with their current amount
      * of water
      */
     public ArrayList<Integer> getBucketAmounts() {
-        return bucketAmounts;
+        ArrayList<Integer> list = new ArrayList<>(amounts.length);
+        for (int amount: amounts) {
+            list.add(amount);
+        }
+        return list;
     }
 
     /**
-     * @return a copy ArrayList that contains the current amount of
-     * water in each bucket
+     * @param bucket number of the bucket
+     * @return amount of water in the bucket
      */
-    private ArrayList<Integer> copyBucketAmounts() {
-        ArrayList<Integer> copy = new ArrayList<>();
-        for (int i: bucketAmounts) {
-            copy.add(i);
-        }
-        return copy;
+    public int getAmount(int bucket) {
+        return amounts[bucket];
     }
 
     /**
@@ -63,53 +102,53 @@ public class WaterConfig implements Configuration {
     @Override
     public Collection<Configuration> getSuccessors() {
         Collection<Configuration> successors = new ArrayList<>();
+        forEachSuccessor(successors::add);
+        return successors;
+    }
+
+    /**
+     * Hands each successor to the sink as it is found. Moves that would
+     * not change anything, filling a full bucket or dumping an empty one,
+     * are left out.
+     *
+     * @param sink receives each successor
+     */
+    @Override
+    public void forEachSuccessor(SuccessorSink sink) {
+        int size = amounts.length;
 
         //get the successors of filling each bucket by the lake
-        for (int i = 0; i < bucketCapacities.size(); i++) {
-            ArrayList<Integer> copy = copyBucketAmounts();
-            copy.set(i, bucketCapacities.get(i));
-            successors.add(new WaterConfig(desiredAmount,
-                    bucketCapacities, copy));
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] != problem.getCapacity(i)) {
+                int[] copy = amounts.clone();
+                copy[i] = problem.getCapacity(i);
+                sink.accept(new WaterConfig(problem, copy));
+            }
         }
 
         //get the successors of dumping a bucket
-        for (int i = 0; i < bucketCapacities.size(); i++) {
-            ArrayList<Integer> copy = copyBucketAmounts();
-            copy.set(i, 0);
-            successors.add(new WaterConfig(desiredAmount,
-                    bucketCapacities, copy));
+        for (int i = 0; i < size; i++) {
+            if (amounts[i] != 0) {
+                int[] copy = amounts.clone();
+                copy[i] = 0;
+                sink.accept(new WaterConfig(problem, copy));
+            }
         }
 
         //get the successors of pouring water from one bucket to another
-        for (int i = 0; i < bucketCapacities.size(); i++) {
-            for (int j = 0; j < bucketCapacities.size(); j++) {
-                if (i != j && bucketAmounts.get(j) !=
-                        bucketCapacities.get(j) &&
-                        bucketAmounts.get(i) != 0) {
-                    ArrayList<Integer> copy = copyBucketAmounts();
-
-                    int amountToTransfer;
-                    int amountLeftover;
-                    if (bucketAmounts.get(i) <=
-                        bucketCapacities.get(j) - bucketAmounts.get(j)) {
-                        amountToTransfer = bucketAmounts.get(i);
-                        amountLeftover = 0;
-                    }
-                    else {
-                        amountToTransfer = bucketCapacities.get(j) -
-                                bucketAmounts.get(j);
-                        amountLeftover = bucketAmounts.get(i) - amountToTransfer;
-                    }
-                    copy.set(i, amountLeftover);
-                    copy.set(j, copy.get(j) + amountToTransfer);
-
-                    successors.add(new WaterConfig(desiredAmount,
-                            bucketCapacities, copy));
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (i != j && amounts[j] != problem.getCapacity(j) &&
+                        amounts[i] != 0) {
+                    int amountToTransfer = Math.min(amounts[i],
+                            problem.getCapacity(j) - amounts[j]);
+                    int[] copy = amounts.clone();
+                    copy[i] -= amountToTransfer;
+                    copy[j] += amountToTransfer;
+                    sink.accept(new WaterConfig(problem, copy));
                 }
             }
         }
-
-        return successors;
     }
 
     /**
@@ -118,8 +157,8 @@ public class WaterConfig implements Configuration {
      */
     @Override
     public boolean isGoal() {
-        for (int amount: bucketAmounts) {
-            if (amount == desiredAmount) {
+        for (int amount: amounts) {
+            if (amount == problem.getDesiredAmount()) {
                 return true;
             }
         }
@@ -137,26 +176,23 @@ public class WaterConfig implements Configuration {
         boolean result = false;
         if (other instanceof WaterConfig) {
             WaterConfig w = (WaterConfig) other;
-            result = this.desiredAmount == w.desiredAmount &&
-                    this.bucketCapacities.equals(w.bucketCapacities) &&
-                    this.bucketAmounts.equals(w.bucketAmounts);
+            result = Arrays.equals(this.amounts, w.amounts) &&
+                    (this.problem == w.problem || this.problem.equals(w.problem));
         }
         return result;
     }
 
     /**
-     * @return integer representing the hashcode
+     * @return integer representing the hashcode of the amounts, mixed so
+     * that configurations holding the same total of water do not collide
      */
     @Override
     public int hashCode() {
-        int hash = desiredAmount;
-        for (int i: bucketCapacities) {
-            hash += i;
-        }
-        for (int i: bucketAmounts) {
-            hash += i;
+        long hash = 0;
+        for (int amount: amounts) {
+            hash = (hash ^ amount) * 0x9E3779B97F4A7C15L;
         }
-        return hash;
+        return (int) (hash ^ (hash >>> 32));
     }
 
     /**
@@ -164,6 +200,6 @@ public class WaterConfig implements Configuration {
      */
     @Override
     public String toString() {
-        return bucketAmounts.toString();
+        return Arrays.toString(amounts);
     }
 }
@@ -0,0 +1,40 @@
+package puzzles.water;
+
+import puzzles.common.solver.Heuristic;
+
+/**
+ * Heuristic for the water puzzle based on the bucket capacities. The
+ * desired amount can only ever be held by a bucket at least that large, and
+ * from all empty buckets one move can only make an amount equal to the
+ * capacity of a bucket.
+ */
+public class WaterHeuristic implements Heuristic<WaterConfig> {
+    /**
+     * @param config configuration to estimate
+     * @return 0 for a goal, UNREACHABLE if no bucket can hold the desired
+     * amount, 2 if all buckets are empty and none holds exactly the desired
+     * amount, 1 otherwise
+     */
+    @Override
+    public int estimate(WaterConfig config) {
+        if (config.isGoal()) {
+            return 0;
+        }
+        int desiredAmount = config.getDesiredAmount();
+        boolean fits = false;
+        boolean exactFit = false;
+        WaterProblem problem = config.getProblem();
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            fits |= problem.getCapacity(i) >= desiredAmount;
+            exactFit |= problem.getCapacity(i) == desiredAmount;
+        }
+        if (!fits) {
+            return UNREACHABLE;
+        }
+        boolean empty = true;
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            empty &= config.getAmount(i) == 0;
+        }
+        return empty && !exactFit ? 2 : 1;
+    }
+}
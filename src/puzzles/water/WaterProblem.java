@@ -0,0 +1,107 @@
+package puzzles.water;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The parts of a water puzzle that never change while it is solved, the
+ * desired amount and the capacity of every bucket. It is made once and
+ * shared by every configuration of the puzzle.
+ */
+public final class WaterProblem {
+    private final int desiredAmount;
+    private final int[] capacities;
+
+    /**
+     * Creates a new water puzzle
+     *
+     * @param desiredAmount amount of water wanted in a bucket
+     * @param capacities capacity of every bucket, copied
+     */
+    public WaterProblem(int desiredAmount, int[] capacities) {
+        this.desiredAmount = desiredAmount;
+        this.capacities = capacities.clone();
+    }
+
+    /**
+     * Creates a new water puzzle
+     *
+     * @param desiredAmount amount of water wanted in a bucket
+     * @param capacities capacity of every bucket, copied
+     */
+    public WaterProblem(int desiredAmount, ArrayList<Integer> capacities) {
+        this.desiredAmount = desiredAmount;
+        this.capacities = new int[capacities.size()];
+        for (int i = 0; i < this.capacities.length; i++) {
+            this.capacities[i] = capacities.get(i);
+        }
+    }
+
+    /**
+     * @return int that represents the amount of water you want a
+     * bucket to have
+     */
+    public int getDesiredAmount() {
+        return desiredAmount;
+    }
+
+    /**
+     * @return number of buckets
+     */
+    public int getNumBuckets() {
+        return capacities.length;
+    }
+
+    /**
+     * @param bucket number of the bucket
+     * @return capacity of the bucket
+     */
+    public int getCapacity(int bucket) {
+        return capacities[bucket];
+    }
+
+    /**
+     * @return a new ArrayList of all bucket capacities
+     */
+    public ArrayList<Integer> getBucketCapacities() {
+        ArrayList<Integer> list = new ArrayList<>(capacities.length);
+        for (int capacity: capacities) {
+            list.add(capacity);
+        }
+        return list;
+    }
+
+    /**
+     * Compares current puzzle to the given puzzle
+     *
+     * @param other puzzle to compare to
+     * @return true if both puzzles have the same desired amount and
+     * buckets, false otherwise
+     */
+    @Override
+    public boolean equals(Object other) {
+        boolean result = false;
+        if (other instanceof WaterProblem) {
+            WaterProblem w = (WaterProblem) other;
+            result = this.desiredAmount == w.desiredAmount &&
+                    Arrays.equals(this.capacities, w.capacities);
+        }
+        return result;
+    }
+
+    /**
+     * @return integer representing the hashcode
+     */
+    @Override
+    public int hashCode() {
+        return 31 * desiredAmount + Arrays.hashCode(capacities);
+    }
+
+    /**
+     * @return String that represents the bucket capacities
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(capacities);
+    }
+}
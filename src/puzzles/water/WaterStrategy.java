@@ -0,0 +1,48 @@
+package puzzles.water;
+
+import puzzles.common.solver.Configuration;
+import puzzles.common.solver.Solution;
+import puzzles.common.solver.SolverStrategy;
+
+import java.util.ArrayList;
+
+/**
+ * Solves the water puzzles WaterAnalysis can answer without a search:
+ * those starting with every bucket empty, with no negative capacities,
+ * that either can never make the desired amount or have two buckets.
+ */
+public class WaterStrategy implements SolverStrategy {
+    @Override
+    public String getName() {
+        return "water";
+    }
+
+    @Override
+    public int getPriority() {
+        return 100;
+    }
+
+    @Override
+    public boolean supports(Configuration start) {
+        if (!(start instanceof WaterConfig)) {
+            return false;
+        }
+        WaterConfig water = (WaterConfig) start;
+        WaterProblem problem = water.getProblem();
+        for (int i = 0; i < problem.getNumBuckets(); i++) {
+            if (water.getAmount(i) != 0) {
+                return false;
+            }
+        }
+        return WaterAnalysis.canAnswer(problem);
+    }
+
+    @Override
+    public Solution solve(Configuration start) {
+        WaterProblem problem = ((WaterConfig) start).getProblem();
+        if (problem.getNumBuckets() == 2) {
+            return Solution.ofPath(WaterAnalysis.solveTwoBuckets(problem), getName());
+        }
+        return Solution.ofPath(new ArrayList<>(), getName());
+    }
+}